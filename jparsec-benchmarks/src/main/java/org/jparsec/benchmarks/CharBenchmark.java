@@ -0,0 +1,46 @@
+package org.jparsec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Parser.Result;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+import static org.jparsec.core.parser.Char.*;
+import static org.jparsec.core.parser.Combinator.*;
+
+import org.monadium.core.data.Unit;
+
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class CharBenchmark {
+	@Param({ "1024", "1048576", "104857600" }) public int size;
+	@Param({ "false", "true" }) public boolean fast;
+
+	Text letters;
+	Text keywords;
+
+	final Parser<Text, Unit, Void, String> stringP = string("keyword");
+	final Parser<Text, Unit, Void, Unit> stringsP = skipSome(string("keyword"));
+	final Parser<Text, Unit, Void, Unit> satisfyP = skipSome(satisfyChar(c -> c >= 'a' && c <= 'z'));
+	final Parser<Text, Unit, Void, String> stringSatisfyP = stringSatisfyChar(c -> c >= 'a' && c <= 'z');
+
+	@Setup public void setup() {
+		letters = text(Inputs.letters(size));
+		keywords = text(Inputs.keywords(size));
+	}
+
+	@Benchmark public Result<Text, Unit, Void, String> stringPrefix() { return run(stringP, keywords); }
+	@Benchmark public Result<Text, Unit, Void, Unit> stringRepeated() { return run(stringsP, keywords); }
+	@Benchmark public Result<Text, Unit, Void, Unit> satisfyRepeated() { return run(satisfyP, letters); }
+	@Benchmark public Result<Text, Unit, Void, String> stringSatisfySpan() { return run(stringSatisfyP, letters); }
+
+	<A> Result<Text, Unit, Void, A> run(Parser<Text, Unit, Void, A> parser, Text text) { return fast ? runFast(parser, text) : runParser(parser, text); }
+}
@@ -0,0 +1,45 @@
+package org.jparsec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Parser.Result;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+import static org.jparsec.core.parser.Char.*;
+import static org.jparsec.core.parser.Combinator.*;
+
+import org.monadium.core.data.List;
+import org.monadium.core.data.Unit;
+
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class CombinatorBenchmark {
+	@Param({ "1024", "1048576", "104857600" }) public int size;
+	@Param({ "false", "true" }) public boolean fast;
+
+	Text letters;
+	Text separated;
+
+	final Parser<Text, Unit, Void, List<Character>> manyP = many(satisfyChar(c -> c >= 'a' && c <= 'z'));
+	final Parser<Text, Unit, Void, List<Character>> someP = some(satisfyChar(c -> c >= 'a' && c <= 'z'));
+	final Parser<Text, Unit, Void, List<String>> manySepP = manySep(character(','), stringSatisfyChar(c -> c >= 'a' && c <= 'z'));
+
+	@Setup public void setup() {
+		letters = text(Inputs.letters(size));
+		separated = text(Inputs.repeatSep(size, ",", i -> "field"));
+	}
+
+	@Benchmark public Result<Text, Unit, Void, List<Character>> manyCharacters() { return run(manyP, letters); }
+	@Benchmark public Result<Text, Unit, Void, List<Character>> someCharacters() { return run(someP, letters); }
+	@Benchmark public Result<Text, Unit, Void, List<String>> manySepFields() { return run(manySepP, separated); }
+
+	<A> Result<Text, Unit, Void, A> run(Parser<Text, Unit, Void, A> parser, Text text) { return fast ? runFast(parser, text) : runParser(parser, text); }
+}
@@ -0,0 +1,36 @@
+package org.jparsec.benchmarks;
+
+import java.util.function.IntFunction;
+
+public interface Inputs {
+	int KB = 1024;
+	int MB = 1024 * KB;
+
+	static String repeat(int size, IntFunction<String> chunk) {
+		StringBuilder builder = new StringBuilder(size + 64);
+		for (int i = 0; builder.length() < size; i++) builder.append(chunk.apply(i));
+		return builder.toString();
+	}
+	static String repeatSep(int size, String separator, IntFunction<String> chunk) {
+		StringBuilder builder = new StringBuilder(size + 64);
+		for (int i = 0; builder.length() < size; i++) {
+			if (i != 0) builder.append(separator);
+			builder.append(chunk.apply(i));
+		}
+		return builder.toString();
+	}
+
+	static String letters(int size) { return repeat(size, i -> Character.toString('a' + i % 26)); }
+	static String keywords(int size) { return repeat(size, i -> "keyword"); }
+	static String integers(int size) { return repeatSep(size, ",", i -> Integer.toString(i * 7919 - 1000000)); }
+	static String doubles(int size) { return repeatSep(size, ",", i -> Double.toString((i * 7919 - 1000000) / 1024.0)); }
+	static String quoted(int size) { return "\"" + repeat(size, i -> i % 64 == 63 ? "\\n" : Character.toString('a' + i % 26)) + "\""; }
+	static String deepExpression(int size) {
+		int depth = Math.max(size / 2 - 1, 0);
+		return "(".repeat(depth) + "a" + ")".repeat(depth);
+	}
+	static String wideExpression(int size) {
+		String[] operators = { " + ", " - ", " * ", " / " };
+		return repeatSep(size, "", i -> i == 0 ? "a" : operators[i % operators.length] + (char) ('a' + i % 26));
+	}
+}
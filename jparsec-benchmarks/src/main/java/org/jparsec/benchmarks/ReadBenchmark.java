@@ -0,0 +1,48 @@
+package org.jparsec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Parser.Result;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+import static org.jparsec.core.parser.Char.*;
+import static org.jparsec.core.parser.Combinator.*;
+import static org.jparsec.core.parser.Read.*;
+
+import org.monadium.core.data.List;
+import org.monadium.core.data.Unit;
+
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class ReadBenchmark {
+	@Param({ "1024", "1048576", "104857600" }) public int size;
+	@Param({ "false", "true" }) public boolean fast;
+
+	Text integers;
+	Text doubles;
+	Text quoted;
+
+	final Parser<Text, Unit, Void, List<Integer>> readIntegerP = manySep(character(','), readInteger());
+	final Parser<Text, Unit, Void, List<Double>> readDoubleP = manySep(character(','), readDouble());
+	final Parser<Text, Unit, Void, String> readStringP = readString();
+
+	@Setup public void setup() {
+		integers = text(Inputs.integers(size));
+		doubles = text(Inputs.doubles(size));
+		quoted = text(Inputs.quoted(size));
+	}
+
+	@Benchmark public Result<Text, Unit, Void, List<Integer>> readIntegers() { return run(readIntegerP, integers); }
+	@Benchmark public Result<Text, Unit, Void, List<Double>> readDoubles() { return run(readDoubleP, doubles); }
+	@Benchmark public Result<Text, Unit, Void, String> readQuoted() { return run(readStringP, quoted); }
+
+	<A> Result<Text, Unit, Void, A> run(Parser<Text, Unit, Void, A> parser, Text text) { return fast ? runFast(parser, text) : runParser(parser, text); }
+}
@@ -0,0 +1,56 @@
+package org.jparsec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Parser.Result;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+import static org.jparsec.core.parser.Char.*;
+import static org.jparsec.core.parser.Term.*;
+import static org.jparsec.core.parser.Term.Associativity.*;
+import static org.jparsec.core.parser.Term.Definition.*;
+import static org.jparsec.core.parser.Term.Level.*;
+import static org.jparsec.core.parser.Term.Operand.*;
+
+import org.monadium.core.data.Unit;
+
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class TermBenchmark {
+	@Param({ "1024", "1048576", "104857600" }) public int size;
+
+	Text deep;
+	Text wide;
+
+	final Parser<Text, Unit, Void, Integer> termP = termP(definition(
+		stringSatisfyChar(Character::isWhitespace),
+		character('('),
+		character(')'),
+		n -> string(n),
+		replace(satisfyChar(c -> c >= 'a' && c <= 'z'), 1),
+		level(LEFT,
+			operand("+", t1 -> operand(t2 -> t1 + t2)),
+			operand("-", t1 -> operand(t2 -> t1 - t2))
+		),
+		level(LEFT,
+			operand("*", t1 -> operand(t2 -> t1 * t2)),
+			operand("/", t1 -> operand(t2 -> t1 / t2))
+		)
+	));
+
+	@Setup public void setup() {
+		deep = text(Inputs.deepExpression(size));
+		wide = text(Inputs.wideExpression(size));
+	}
+
+	@Benchmark public Result<Text, Unit, Void, Integer> deepTerm() { return runParser(termP, deep); }
+	@Benchmark public Result<Text, Unit, Void, Integer> wideTerm() { return runParser(termP, wide); }
+}
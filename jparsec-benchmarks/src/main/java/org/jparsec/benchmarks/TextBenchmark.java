@@ -0,0 +1,34 @@
+package org.jparsec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class TextBenchmark {
+	@Param({ "1024", "1048576", "104857600" }) public int size;
+
+	Text keyword;
+	Text input;
+	Text suffix;
+
+	@Setup public void setup() {
+		String keywords = Inputs.keywords(size);
+		keyword = text("keyword");
+		input = text(keywords, 7);
+		suffix = text(keywords, keywords.length() - 7);
+	}
+
+	@Benchmark public boolean isPrefixOf() { return keyword.isPrefixOf(input); }
+	@Benchmark public boolean isSuffixOf() { return suffix.isSuffixOf(input); }
+	@Benchmark public boolean textEquals() { return input.equals(input.drop(0)); }
+	@Benchmark public int textHashCode() { return input.hashCode(); }
+}
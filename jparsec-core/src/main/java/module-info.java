@@ -1,5 +1,6 @@
 module org.jparsec.core {
 	requires transitive org.monadium.core;
+	requires jdk.jfr;
 
 	exports org.jparsec.core;
 	exports org.jparsec.core.parser;
@@ -0,0 +1,61 @@
+package org.jparsec.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+public record Bytes(ByteBuffer buffer, int offset, int limit) {
+	static final Bytes EMPTY = new Bytes(ByteBuffer.allocate(0), 0, 0);
+
+	public static Bytes emptyBytes() { return EMPTY; }
+	public static Bytes bytes(byte... bytes) { return bytes(ByteBuffer.wrap(bytes)); }
+	public static Bytes bytes(ByteBuffer buffer) { ByteBuffer slice = buffer.slice(); return slice.limit() == 0 ? EMPTY : new Bytes(slice, 0, slice.limit()); }
+	public static Bytes mapped(Path path) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return bytes(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public boolean isEmpty() { return offset >= limit; }
+	public boolean isNonempty() { return offset < limit; }
+	public int length() { return limit - offset; }
+
+	public byte head() { return get(0); }
+	public Bytes tail() { return drop(1); }
+	public byte get(int i) { return buffer.get(offset + Objects.checkIndex(i, length())); }
+	public long get(int i, int n, ByteOrder order) {
+		Objects.checkFromIndexSize(i, n, length());
+		long value = 0;
+		if (order == ByteOrder.BIG_ENDIAN) for (int j = 0; j < n; j++) value = value << 8 | buffer.get(offset + i + j) & 0xFF;
+		else for (int j = n - 1; j >= 0; j--) value = value << 8 | buffer.get(offset + i + j) & 0xFF;
+		return value;
+	}
+
+	public Bytes take(int n) { return new Bytes(buffer, offset, offset + Math.min(Math.max(n, 0), length())); }
+	public Bytes drop(int n) { return new Bytes(buffer, offset + Math.min(Math.max(n, 0), length()), limit); }
+	public boolean startsWith(byte[] bytes) {
+		if (length() < bytes.length) return false;
+		for (int i = 0; i < bytes.length; i++) if (buffer.get(offset + i) != bytes[i]) return false;
+		return true;
+	}
+	public int count(IntPredicate p) { int c; for (c = 0; offset + c < limit && p.test(buffer.get(offset + c) & 0xFF); c++); return c; }
+
+	public ByteBuffer toByteBuffer() { return buffer.slice(offset, length()).asReadOnlyBuffer(); }
+	public byte[] toArray() { byte[] bytes = new byte[length()]; buffer.get(offset, bytes); return bytes; }
+
+	@Override public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = offset; i < limit; i++) builder.append(i == offset ? "" : " ").append(String.format("%02x", buffer.get(i) & 0xFF));
+		return builder.toString();
+	}
+	@Override public boolean equals(Object x) { return x instanceof Bytes x0 && x0.length() == length() && x0.startsWith(toArray()); }
+	@Override public int hashCode() { int h = 1; for (int i = offset; i < limit; i++) h = 31 * h + buffer.get(i); return h; }
+}
@@ -0,0 +1,83 @@
+package org.jparsec.core;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+@FunctionalInterface
+public interface CharPredicate extends Predicate<Character> {
+	@FunctionalInterface interface Pure extends CharPredicate {}
+	record CharSet(long low, long high, char[] ranges) implements Pure {
+		@Override public boolean test(char c) {
+			if (c < 64) return (low >>> c & 1) != 0;
+			if (c < 128) return (high >>> c - 64 & 1) != 0;
+			int i = 0, j = ranges.length / 2;
+			while (i < j) { int m = i + j >>> 1; if (ranges[2 * m + 1] < c) i = m + 1; else j = m; }
+			return i < ranges.length / 2 && ranges[2 * i] <= c;
+		}
+	}
+
+	CharPredicate ASCII = (Pure) c -> c < 0x80;
+	CharPredicate ASCII_DIGIT = range('0', '9');
+	CharPredicate ASCII_UPPER = range('A', 'Z');
+	CharPredicate ASCII_LOWER = range('a', 'z');
+	CharPredicate ASCII_LETTER = (Pure) c -> c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z';
+	CharPredicate ASCII_LETTER_OR_DIGIT = (Pure) c -> c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9';
+	CharPredicate ASCII_WHITESPACE = (Pure) c -> c == ' ' || c >= '\t' && c <= '\r';
+	CharPredicate DIGIT = (Pure) Character::isDigit;
+	CharPredicate UPPER = (Pure) Character::isUpperCase;
+	CharPredicate LOWER = (Pure) Character::isLowerCase;
+	CharPredicate LETTER = (Pure) Character::isLetter;
+	CharPredicate LETTER_OR_DIGIT = (Pure) Character::isLetterOrDigit;
+	CharPredicate WHITESPACE = (Pure) Character::isWhitespace;
+
+	static CharPredicate charPredicate(Predicate<Character> p) { return p instanceof CharPredicate q ? q : p::test; }
+	static CharPredicate is(char c) { return (Pure) c1 -> c1 == c; }
+	static CharPredicate range(char from, char to) { return (Pure) c -> c >= from && c <= to; }
+	static CharPredicate anyOf(char... cs) {
+		char[] bounds = new char[cs.length * 2];
+		for (int i = 0; i < cs.length; i++) bounds[2 * i] = bounds[2 * i + 1] = cs[i];
+		return ranges(bounds);
+	}
+	static CharPredicate ranges(char... bounds) {
+		long low = 0, high = 0;
+		long[] packed = new long[bounds.length / 2];
+		int n = 0;
+		for (int i = 0; i + 1 < bounds.length; i += 2) {
+			char from = bounds[i], to = bounds[i + 1];
+			for (char c = from; c <= to && c < 128; c++) if (c < 64) low |= 1L << c; else high |= 1L << c - 64;
+			if (to >= 128) packed[n++] = (long) Math.max(from, 128) << 16 | to;
+		}
+		Arrays.sort(packed, 0, n);
+		char[] ranges = new char[2 * n];
+		int m = 0;
+		for (int i = 0; i < n; i++) {
+			char from = (char) (packed[i] >>> 16), to = (char) packed[i];
+			if (m > 0 && from <= ranges[m - 1] + 1) ranges[m - 1] = (char) Math.max(ranges[m - 1], to);
+			else { ranges[m++] = from; ranges[m++] = to; }
+		}
+		return new CharSet(low, high, Arrays.copyOf(ranges, m));
+	}
+	static CharPredicate charSet(String spec) {
+		boolean negate = spec.length() > 1 && spec.charAt(0) == '^';
+		StringBuilder bounds = new StringBuilder();
+		for (int i = negate ? 1 : 0; i < spec.length(); i++) {
+			char from = spec.charAt(i) == '\\' && i + 1 < spec.length() ? spec.charAt(++i) : spec.charAt(i);
+			char to = from;
+			if (i + 2 < spec.length() && spec.charAt(i + 1) == '-') {
+				i += 2;
+				to = spec.charAt(i) == '\\' && i + 1 < spec.length() ? spec.charAt(++i) : spec.charAt(i);
+				if (to < from) throw new IllegalArgumentException("Invalid range " + from + "-" + to + " in character class: " + spec);
+			}
+			bounds.append(from).append(to);
+		}
+		CharPredicate p = ranges(bounds.toString().toCharArray());
+		return negate ? p.negate() : p;
+	}
+
+	boolean test(char c);
+
+	@Override default boolean test(Character c) { return test(c.charValue()); }
+	@Override default CharPredicate negate() { return this instanceof Pure ? (Pure) c -> !test(c) : c -> !test(c); }
+	default CharPredicate and(CharPredicate p) { return this instanceof Pure && p instanceof Pure ? (Pure) c -> test(c) && p.test(c) : c -> test(c) && p.test(c); }
+	default CharPredicate or(CharPredicate p) { return this instanceof Pure && p instanceof Pure ? (Pure) c -> test(c) || p.test(c) : c -> test(c) || p.test(c); }
+}
@@ -0,0 +1,60 @@
+package org.jparsec.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+final class Chunk {
+	static final int SIZE = 8192;
+
+	final Reader reader;
+	final char[] chars;
+	final int length;
+	private Chunk next;
+	private boolean last;
+
+	private Chunk(Reader reader, char[] chars, int length) {
+		this.reader = reader;
+		this.chars = chars;
+		this.length = length;
+	}
+
+	static Chunk read(Reader reader, int size) {
+		char[] chars = new char[size];
+		try {
+			int length;
+			do length = reader.read(chars, 0, size); while (length == 0);
+			return length < 0 ? null : new Chunk(reader, chars, length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	static Reader reader(ByteBuffer bytes, Charset charset) {
+		CharsetDecoder decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		return new Reader() {
+			private boolean flushed;
+
+			@Override public int read(char[] chars, int offset, int length) {
+				if (flushed) return -1;
+				CharBuffer buffer = CharBuffer.wrap(chars, offset, length);
+				if (decoder.decode(bytes, buffer, true).isUnderflow()) flushed = decoder.flush(buffer).isUnderflow();
+				return flushed && buffer.position() == offset ? -1 : buffer.position() - offset;
+			}
+			@Override public void close() {}
+		};
+	}
+
+	synchronized Chunk next() {
+		if (next == null && !last) {
+			next = read(reader, chars.length);
+			last = next == null;
+		}
+		return next;
+	}
+}
@@ -0,0 +1,271 @@
+package org.jparsec.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.jparsec.core.Parser.Context;
+import org.jparsec.core.Parser.Cursor;
+import org.jparsec.core.Parser.Cursor.Mark;
+import org.jparsec.core.Parser.Fast;
+import org.jparsec.core.Parser.Grammar;
+import static org.jparsec.core.Parser.Grammar.*;
+import org.jparsec.core.Parser.Logger;
+
+import static org.monadium.core.data.Unit.*;
+
+final class Compiler {
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final ClassValue<Template> TEMPLATES = new ClassValue<>() {
+		@Override protected Template computeValue(Class<?> template) {
+			try (InputStream in = template.getResourceAsStream(template.getName().substring(template.getPackageName().length() + 1) + ".class")) {
+				return new Template(in == null ? null : in.readAllBytes());
+			} catch (IOException e) {
+				return new Template(null);
+			}
+		}
+	};
+
+	private static final class Template {
+		private volatile byte[] bytes;
+
+		Template(byte[] bytes) { this.bytes = bytes; }
+	}
+
+	private final IdentityHashMap<Parser<?, ?, ?, ?>, Fast<?, ?, ?, ?>> compiled = new IdentityHashMap<>();
+
+	private Compiler() {}
+
+	static <S, U, E, A> Fast<S, U, E, A> compile(Parser<S, U, E, A> parser) { return new Compiler().fast(parser); }
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private <S, U, E, A> Fast<S, U, E, A> fast(Parser<S, U, E, A> parser) {
+		Fast<S, U, E, A> fast = (Fast<S, U, E, A>) compiled.get(parser);
+		if (fast != null) return fast;
+		fast = switch ((Grammar) parser.grammar()) {
+			case Opaque g -> parser.fast();
+			case Satisfy g -> parser.fast();
+			case Literal g -> parser.fast();
+			case Strings g -> parser.fast();
+			case Attempt g -> instantiate(AttemptFast.class, fast(g.parser()));
+			case Sequence g -> instantiate(SequenceFast.class, (Object) fasts(g.parsers()));
+			case Choice g -> instantiate(ChoiceFast.class, fasts(g.parsers()), g.table());
+			case Mapping g -> instantiate(MappingFast.class, fast(g.parser()), g.f());
+			case Between g -> instantiate(BetweenFast.class, fast(g.begin()), fast(g.end()), fast(g.parser()));
+			case Repeat g -> g.first() == g.rest() && g.first().grammar() instanceof Satisfy s
+				? instantiate(SatisfyRepeatFast.class, g.required(), s.predicate(), fast(g.first()), g.buffer(), g.add(), g.finish())
+				: instantiate(RepeatFast.class, g.required(), fast(g.first()), fast(g.rest()), g.buffer(), g.add(), g.finish());
+		};
+		compiled.put(parser, fast);
+		return fast;
+	}
+	private Fast<?, ?, ?, ?>[] fasts(Parser<?, ?, ?, ?>[] parsers) {
+		Fast<?, ?, ?, ?>[] fasts = new Fast<?, ?, ?, ?>[parsers.length];
+		for (int i = 0; i < parsers.length; i++) fasts[i] = fast(parsers[i]);
+		return fasts;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <F> F instantiate(Class<?> template, Object... arguments) {
+		Constructor<?> constructor = template.getDeclaredConstructors()[0];
+		Template t = TEMPLATES.get(template);
+		byte[] bytes = t.bytes;
+		MethodHandle handle = null;
+		if (bytes != null) try {
+			MethodHandles.Lookup lookup = LOOKUP.defineHiddenClass(bytes, true);
+			handle = lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, constructor.getParameterTypes()));
+		} catch (ReflectiveOperationException | LinkageError e) {
+			t.bytes = null;
+		}
+		if (handle != null) try {
+			return (F) handle.invokeWithArguments(arguments);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+		try {
+			return (F) constructor.newInstance(arguments);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static final class SequenceFast<S, U, E> implements Fast<S, U, E, Object> {
+		private final Fast<S, U, E, ?>[] fasts;
+
+		SequenceFast(Fast<S, U, E, ?>[] fasts) { this.fasts = fasts; }
+
+		@Override public boolean run(Cursor<S, U, E> c) {
+			boolean consumed = false;
+			for (Fast<S, U, E, ?> fast : fasts) {
+				if (!fast.run(c)) return c.fail(consumed || c.consumed(), c.halt());
+				consumed = consumed || c.consumed();
+			}
+			return c.success(consumed, unit());
+		}
+	}
+	static final class AttemptFast<S, U, E, A> implements Fast<S, U, E, A> {
+		private final Fast<S, U, E, A> fast;
+
+		AttemptFast(Fast<S, U, E, A> fast) { this.fast = fast; }
+
+		@Override public boolean run(Cursor<S, U, E> c) {
+			Mark<S, U, E> mark = c.mark();
+			long cuts = Context.cuts(c.context());
+			if (fast.run(c)) return true;
+			if (Context.cuts(c.context()) != cuts) return c.fail(true, c.halt());
+			Logger<E> logger = c.logger();
+			c.reset(mark);
+			c.updateLogger(logger);
+			return c.fail(false, c.halt());
+		}
+	}
+	static final class ChoiceFast<S, U, E, A> implements Fast<S, U, E, A> {
+		private final Fast<S, U, E, A>[] fasts;
+		private final int[][] table;
+
+		ChoiceFast(Fast<S, U, E, A>[] fasts, int[][] table) { this.fasts = fasts; this.table = table; }
+
+		@Override public boolean run(Cursor<S, U, E> c) {
+			Mark<S, U, E> mark = c.mark();
+			int i = table == null ? -1 : Choice.index(c.stream());
+			int[] candidates = i < 0 ? null : table[i];
+			if (candidates == null) return merge(c, mark, null, null, fasts.length, false);
+			Logger<E>[] failures = null;
+			for (int k = 0; k < candidates.length; k++) {
+				c.reset(mark);
+				if (fasts[candidates[k]].run(c)) return true;
+				if (c.consumed()) return false;
+				if (failures == null) failures = loggers(candidates.length);
+				failures[k] = c.logger();
+				if (c.halt()) return merge(c, mark, candidates, failures, candidates[k] + 1, true);
+			}
+			return merge(c, mark, candidates, failures, fasts.length, false);
+		}
+
+		private boolean merge(Cursor<S, U, E> c, Mark<S, U, E> mark, int[] candidates, Logger<E>[] failures, int limit, boolean halt) {
+			Logger<E> logger = mark.logger();
+			boolean ran = false, stale = false;
+			for (int j = 0; j < limit; j++) {
+				int k = candidates == null ? -1 : Arrays.binarySearch(candidates, j);
+				if (k >= 0) { logger = logger.concat(failures[k]); stale = ran; continue; }
+				c.reset(mark);
+				if (fasts[j].run(c)) return true;
+				if (c.consumed()) return false;
+				c.updateLogger(logger = logger.concat(c.logger()));
+				if (c.halt()) return false;
+				ran = true;
+				stale = false;
+			}
+			if (stale) c.reset(mark);
+			c.updateLogger(logger);
+			return c.fail(false, halt);
+		}
+		@SuppressWarnings("unchecked")
+		private static <E> Logger<E>[] loggers(int n) { return (Logger<E>[]) new Logger<?>[n]; }
+	}
+	static final class MappingFast<S, U, E, A, B> implements Fast<S, U, E, B> {
+		private final Fast<S, U, E, A> fast;
+		private final Function<A, B> f;
+
+		MappingFast(Fast<S, U, E, A> fast, Function<A, B> f) { this.fast = fast; this.f = f; }
+
+		@Override public boolean run(Cursor<S, U, E> c) { return fast.run(c) && c.success(c.consumed(), f.apply(c.result())); }
+	}
+	static final class BetweenFast<S, U, E, A> implements Fast<S, U, E, A> {
+		private final Fast<S, U, E, ?> begin;
+		private final Fast<S, U, E, ?> end;
+		private final Fast<S, U, E, A> fast;
+
+		BetweenFast(Fast<S, U, E, ?> begin, Fast<S, U, E, ?> end, Fast<S, U, E, A> fast) { this.begin = begin; this.end = end; this.fast = fast; }
+
+		@Override public boolean run(Cursor<S, U, E> c) {
+			if (!begin.run(c)) return false;
+			boolean consumed = c.consumed();
+			if (!fast.run(c)) return c.fail(consumed || c.consumed(), c.halt());
+			consumed = consumed || c.consumed();
+			A a = c.result();
+			if (!end.run(c)) return c.fail(consumed || c.consumed(), c.halt());
+			return c.success(consumed || c.consumed(), a);
+		}
+	}
+	static final class RepeatFast<S, U, E, A, C, B> implements Fast<S, U, E, B> {
+		private final boolean required;
+		private final Fast<S, U, E, A> first;
+		private final Fast<S, U, E, A> rest;
+		private final Supplier<C> buffer;
+		private final BiConsumer<C, A> add;
+		private final Function<C, B> finish;
+
+		RepeatFast(boolean required, Fast<S, U, E, A> first, Fast<S, U, E, A> rest, Supplier<C> buffer, BiConsumer<C, A> add, Function<C, B> finish) {
+			this.required = required;
+			this.first = first;
+			this.rest = rest;
+			this.buffer = buffer;
+			this.add = add;
+			this.finish = finish;
+		}
+
+		@Override public boolean run(Cursor<S, U, E> c) {
+			C as = buffer.get();
+			Fast<S, U, E, A> next = first;
+			boolean consumed = false;
+			if (required) {
+				if (!first.run(c)) return false;
+				add.accept(as, c.result());
+				consumed = c.consumed();
+				next = rest;
+			}
+			for (;;) {
+				Mark<S, U, E> mark = c.mark();
+				if (next.run(c)) {
+					add.accept(as, c.result());
+					consumed = consumed || c.consumed();
+					next = rest;
+					continue;
+				}
+				if (c.consumed() || c.halt()) return c.fail(consumed || c.consumed(), c.halt());
+				c.reset(mark);
+				return c.success(consumed, finish.apply(as));
+			}
+		}
+	}
+	static final class SatisfyRepeatFast<U, E, C, B> implements Fast<Text, U, E, B> {
+		private final boolean required;
+		private final CharPredicate predicate;
+		private final Fast<Text, U, E, Character> fast;
+		private final Supplier<C> buffer;
+		private final BiConsumer<C, Character> add;
+		private final Function<C, B> finish;
+
+		SatisfyRepeatFast(boolean required, CharPredicate predicate, Fast<Text, U, E, Character> fast, Supplier<C> buffer, BiConsumer<C, Character> add, Function<C, B> finish) {
+			this.required = required;
+			this.predicate = predicate;
+			this.fast = fast;
+			this.buffer = buffer;
+			this.add = add;
+			this.finish = finish;
+		}
+
+		@Override public boolean run(Cursor<Text, U, E> c) {
+			Text stream = c.stream();
+			int n = stream.countChar(predicate);
+			if (n == 0 && required) return fast.run(c);
+			C as = buffer.get();
+			String s = stream.take(n).toString();
+			for (int i = 0; i < n; i++) add.accept(as, s.charAt(i));
+			c.updateStream(stream.drop(n));
+			c.advanceString(s);
+			return c.success(n > 0, finish.apply(as));
+		}
+	}
+}
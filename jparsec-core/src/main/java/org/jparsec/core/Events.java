@@ -0,0 +1,108 @@
+package org.jparsec.core;
+
+import java.util.function.Supplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import org.jparsec.core.Parser.Context;
+import org.jparsec.core.Parser.Environment;
+import org.jparsec.core.Parser.Result;
+
+final class Events {
+	@Name("org.jparsec.Parse")
+	@Label("Parse")
+	@Category("JParsec")
+	@Description("A top-level runParser or runFast call")
+	static final class ParseEvent extends Event {
+		@Label("Mode") String mode;
+		@Label("Source") String source;
+		@Label("Input Length") @Description("Length of the input stream, or -1 when it is not known up front") long inputLength;
+		@Label("Consumed") long consumed;
+		@Label("Success") boolean success;
+		@Label("Furthest Error") @Description("Offset of the furthest logged message relative to the end of the parse, or -1 when nothing was logged") long furthest;
+		@Label("Results") @Description("Parser results allocated by the run") long results;
+		@Label("Environments") @Description("Environments allocated by the run") long environments;
+	}
+	@Name("org.jparsec.NamedParse")
+	@Label("Named Parse")
+	@Category("JParsec")
+	@Description("A run of a sub-parser marked with Profile.profiled")
+	static final class NamedParseEvent extends Event {
+		@Label("Name") String name;
+		@Label("Offset") long offset;
+		@Label("Consumed") long consumed;
+		@Label("Success") boolean success;
+		@Label("Backtrack") @Description("Failed after consuming input") boolean backtrack;
+	}
+
+	static final EventType PARSE = EventType.getEventType(ParseEvent.class);
+	static final EventType NAMED = EventType.getEventType(NamedParseEvent.class);
+	private static final ThreadLocal<Boolean> PARSING = new ThreadLocal<>();
+
+	private Events() {}
+
+	static <S, U, E, A> Result<S, U, E, A> parse(String mode, Environment<S, U, E> environment, Supplier<Result<S, U, E, A>> run) {
+		if (PARSING.get() != null) return run.get();
+		ParseEvent event = new ParseEvent();
+		Context context = environment.context();
+		long results = context == null ? 0 : context.results;
+		long environments = context == null ? 0 : context.environments;
+		boolean counting = context != null && context.counting;
+		if (context != null) context.counting = true;
+		PARSING.set(true);
+		event.begin();
+		Result<S, U, E, A> result;
+		try {
+			result = run.get();
+		} finally {
+			PARSING.remove();
+			if (context != null) context.counting = counting;
+		}
+		event.end();
+		if (event.shouldCommit()) {
+			Environment<S, U, E> end = result.getEnvironment();
+			event.mode = mode;
+			event.source = environment.lines().origin().tag();
+			event.inputLength = length(environment.stream());
+			event.consumed = end.offset() - environment.offset();
+			event.success = result.isSuccess();
+			event.furthest = end.logger().location().stream().mapToLong(location -> location.offset() - end.offset()).findFirst().orElse(-1);
+			event.results = context == null ? 0 : context.results - results;
+			event.environments = context == null ? 0 : context.environments - environments;
+			event.commit();
+		}
+		return result;
+	}
+	static NamedParseEvent named() {
+		NamedParseEvent event = new NamedParseEvent();
+		event.begin();
+		return event;
+	}
+	static void named(NamedParseEvent event, String name, int offset, boolean success, boolean consumed, int end) {
+		event.end();
+		if (!event.shouldCommit()) return;
+		event.name = name;
+		event.offset = offset;
+		event.consumed = end - offset;
+		event.success = success;
+		event.backtrack = !success && consumed;
+		event.commit();
+	}
+
+	private static long length(Object stream) {
+		return switch (stream) {
+			case Text.Streamed p1 -> -1;
+			case Text.Tracked p1 -> -1;
+			case Text p1 -> p1.length();
+			case Bytes p1 -> p1.length();
+			case TokenStream<?> p1 -> p1.length();
+			default -> -1;
+		};
+	}
+}
@@ -0,0 +1,248 @@
+package org.jparsec.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Parser.Context;
+import static org.jparsec.core.Parser.Context.*;
+import org.jparsec.core.Parser.Environment;
+import static org.jparsec.core.Parser.Environment.*;
+import org.jparsec.core.Parser.Lines;
+import static org.jparsec.core.Parser.Location.*;
+import org.jparsec.core.Parser.Logger;
+import static org.jparsec.core.Parser.Logger.*;
+import org.jparsec.core.Parser.Logger.Note;
+import org.jparsec.core.Parser.Result;
+import static org.jparsec.core.Parser.Result.*;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+
+import org.monadium.core.control.Trampoline;
+import static org.monadium.core.control.Trampoline.*;
+import org.monadium.core.data.Tuple;
+
+import static org.monadium.core.data.Maybe.*;
+
+import static org.monadium.core.Notation.*;
+import static org.monadium.core.control.Trampoline.Notation.*;
+
+public final class Incremental<U, E, A> {
+	record Key(Object node, int start) {}
+	static final class Entry {
+		final Object node;
+		final Object input;
+		final Result<Text, ?, ?, ?> result;
+		final int location;
+		final int reach;
+		final int origin;
+		final boolean positional;
+		final java.util.List<Entry> children;
+		final int[] newlines;
+		final java.util.List<Entry> covered;
+		int start;
+		int end;
+		int extent;
+
+		Entry(Object node, Object input, Result<Text, ?, ?, ?> result, int start, int end, int extent, int location, int reach, boolean positional, java.util.List<Entry> children, int[] newlines, java.util.List<Entry> covered) {
+			this.node = node;
+			this.input = input;
+			this.result = result;
+			this.start = start;
+			this.end = end;
+			this.extent = extent;
+			this.location = location;
+			this.reach = reach;
+			this.origin = start;
+			this.positional = positional;
+			this.children = children;
+			this.newlines = newlines;
+			this.covered = covered;
+		}
+
+		int span() { return Math.max(end, start + reach); }
+	}
+
+	private final Parser<Text, U, E, A> parser;
+	private final U user;
+	private Text document;
+	private Result<Text, U, E, A> result;
+	private HashMap<Key, Entry> entries = new HashMap<>();
+	private Set<Entry> live = Collections.newSetFromMap(new IdentityHashMap<>());
+	private HashMap<Key, Entry> previous;
+	private java.util.List<Entry> children;
+	private int extent;
+	private int reused;
+
+	private Incremental(Parser<Text, U, E, A> parser, Text document, U user) {
+		this.parser = parser;
+		this.user = user;
+		this.document = document;
+		this.result = run();
+	}
+
+	public static <U, E, A> Incremental<U, E, A> incremental(Parser<Text, U, E, A> parser, Text document, U user) { return new Incremental<>(parser, document, user); }
+
+	@SuppressWarnings("unchecked")
+	public static <U, E, A> Parser<Text, U, E, A> node(Parser<Text, U, E, A> parser) {
+		Object key = new Object();
+		return parser(e -> e.context() == null || e.context().incremental == null ? parser.parser().apply(e) : ((Incremental<U, E, ?>) e.context().incremental).node(key, parser, e));
+	}
+
+	public Text document() { return document; }
+	public Result<Text, U, E, A> result() { return result; }
+	public int reused() { return reused; }
+
+	public Result<Text, U, E, A> edit(int offset, int removed, Text inserted) {
+		Objects.checkFromIndexSize(offset, removed, document.length());
+		Tuple<Text, Text> parts = document.splitAt(offset);
+		document = parts.a().concat(inserted).concat(parts.b().drop(removed));
+		int delta = inserted.length() - removed;
+		HashMap<Key, Entry> entries = new HashMap<>();
+		for (Entry entry : live) {
+			if (entry.extent > offset) {
+				if (entry.start < offset + removed || entry.positional) { entry.start = -1; continue; }
+				entry.start += delta;
+				entry.end += delta;
+				entry.extent += delta;
+			}
+			entries.put(new Key(entry.node, entry.start), entry);
+		}
+		this.entries = entries;
+		return result = run();
+	}
+
+	private Result<Text, U, E, A> run() {
+		Context context = context();
+		context.incremental = this;
+		previous = entries;
+		entries = new HashMap<>();
+		live = Collections.newSetFromMap(new IdentityHashMap<>());
+		children = new ArrayList<>();
+		extent = 0;
+		reused = 0;
+		Result<Text, U, E, A> result = runParser(parser, environment(tracked(document, 0, this::read), user, location(), logger(), context));
+		previous = null;
+		children = null;
+		context.incremental = null;
+		Environment<Text, U, E> e = result.getEnvironment().updateStream(document.drop(result.getEnvironment().offset()));
+		return switch (result) {
+			case Success<Text, U, E, A> p1 -> success(e, p1.consumed(), p1.result());
+			case Fail<Text, U, E, A> p1 -> fail(e, p1.consumed(), p1.halt());
+		};
+	}
+	private void read(int offset) { if (offset > extent) extent = offset; }
+
+	@SuppressWarnings("unchecked")
+	private <B> Trampoline<Result<Text, U, E, B>> node(Object key, Parser<Text, U, E, B> parser, Environment<Text, U, E> e) {
+		Key k = new Key(key, e.offset());
+		Entry entry = entries.get(k);
+		if (entry == null && (entry = previous.get(k)) != null && Objects.equals(entry.input, e.user())) carry(entry);
+		if (entry != null && Objects.equals(entry.input, e.user())) {
+			read(entry.extent);
+			if (entry.positional) e.context().positional = true;
+			children.add(entry);
+			reused++;
+			return done(reuse(entry, (Result<Text, U, E, B>) entry.result, e));
+		}
+		int saved = extent;
+		boolean positional = e.context().positional;
+		java.util.List<Entry> siblings = children;
+		extent = 0;
+		children = new ArrayList<>();
+		e.context().positional = false;
+		return $do(
+		$(	parser.parser().apply(e.updateLogger(logger()))																		, result1 -> {
+			int start = e.offset(), end = result1.getEnvironment().offset();
+			int location = result1.getEnvironment().logger().location().stream().mapToInt(l -> l.offset() - start).findFirst().orElse(-1);
+			int reach = location;
+			for (Note<E> note = result1.getEnvironment().logger().notes(); note != null; note = note.next()) reach = Math.max(reach, note.location().offset() - start);
+			java.util.List<Entry> covered = new ArrayList<>();
+			int[] newlines = newlines(start, Math.max(end, start + reach), children, covered);
+			Entry created = new Entry(key, e.user(), strip(result1), start, end, Math.max(extent, Math.max(end, start + reach) + 1), location, reach, e.context().positional, children, newlines, covered);
+			extent = Math.max(saved, created.extent);
+			e.context().positional = positional || created.positional;
+			children = siblings;
+			children.add(created);
+			live.add(created);
+			entries.put(k, created);
+			return done(replay(result1, e.logger()));
+		})
+		);
+	}
+	private void carry(Entry entry) {
+		Deque<Entry> pending = new ArrayDeque<>();
+		pending.push(entry);
+		while (!pending.isEmpty()) {
+			Entry next = pending.pop();
+			if (next.start < 0 || !live.add(next)) continue;
+			entries.putIfAbsent(new Key(next.node, next.start), next);
+			for (Entry child : next.children) pending.push(child);
+		}
+	}
+	private int[] newlines(int start, int end, java.util.List<Entry> children, java.util.List<Entry> covered) {
+		java.util.List<Entry> sorted = new ArrayList<>(children);
+		sorted.sort(Comparator.comparingInt(child -> child.start));
+		int[] newlines = new int[0];
+		int size = 0, from = start;
+		for (int k = 0; from < end; k++) {
+			Entry child = k < sorted.size() && sorted.get(k).start < end ? sorted.get(k) : null;
+			if (child != null && child.start < from) continue;
+			int to = child == null ? end : child.start;
+			for (Text t = document.drop(from).take(to - from); t instanceof Nonempty p1; ) {
+				int n = p1.countChar(c -> c != '\n');
+				if (n == p1.length()) break;
+				if (size == newlines.length) newlines = Arrays.copyOf(newlines, Math.max(size * 2, 4));
+				newlines[size++] = (from += n + 1) - start;
+				t = p1.drop(n + 1);
+			}
+			if (child == null) break;
+			covered.add(child);
+			from = Math.min(child.span(), end);
+		}
+		return Arrays.copyOf(newlines, size);
+	}
+	private static void restore(Entry entry, Lines lines, int limit) {
+		int i = 0;
+		for (Entry child : entry.covered) {
+			for (; i < entry.newlines.length && entry.start + entry.newlines[i] <= Math.min(child.start, limit); i++) lines.newline(entry.start + entry.newlines[i]);
+			if (child.start >= limit) return;
+			restore(child, lines, Math.min(child.span(), limit));
+		}
+		for (; i < entry.newlines.length && entry.start + entry.newlines[i] <= limit; i++) lines.newline(entry.start + entry.newlines[i]);
+	}
+	private static <E> Note<E> rebase(Note<E> notes, int shift, Lines lines) {
+		java.util.List<Note<E>> pending = new ArrayList<>();
+		for (Note<E> note = notes; note != null; note = note.next()) pending.add(note);
+		Note<E> rebased = null;
+		for (int i = pending.size() - 1; i >= 0; i--) rebased = Note.note(lines.location(pending.get(i).location().offset() + shift), pending.get(i).message(), rebased);
+		return rebased;
+	}
+	private static <U, E, B> Result<Text, U, E, B> strip(Result<Text, U, E, B> result) {
+		Environment<Text, U, E> e = result.getEnvironment();
+		Environment<Text, U, E> environment = environment(emptyText(), e.user(), e.offset(), null, e.logger(), null);
+		return switch (result) {
+			case Success<Text, U, E, B> p1 -> success(environment, p1.consumed(), p1.result());
+			case Fail<Text, U, E, B> p1 -> fail(environment, p1.consumed(), p1.halt());
+		};
+	}
+	private <B> Result<Text, U, E, B> reuse(Entry entry, Result<Text, U, E, B> result, Environment<Text, U, E> e) {
+		restore(entry, e.lines(), entry.span());
+		Logger<E> logger = result.getEnvironment().logger();
+		logger = new Logger<>(entry.location < 0 ? logger.location() : just(e.lines().location(entry.start + entry.location)), logger.log(), rebase(logger.notes(), entry.start - entry.origin, e.lines()));
+		Environment<Text, U, E> environment = environment(e.stream().drop(entry.end - entry.start), result.getEnvironment().user(), entry.end, e.lines(), e.logger().concat(logger), e.context());
+		return switch (result) {
+			case Success<Text, U, E, B> p1 -> success(environment, p1.consumed(), p1.result());
+			case Fail<Text, U, E, B> p1 -> fail(environment, p1.consumed(), p1.halt());
+		};
+	}
+}
@@ -1,25 +1,47 @@
 package org.jparsec.core;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Objects;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.jparsec.core.Parser.Location;
 import static org.jparsec.core.Parser.Location.*;
+import org.jparsec.core.Parser.Lines;
+import static org.jparsec.core.Parser.Lines.*;
 import org.jparsec.core.Parser.Message;
 import static org.jparsec.core.Parser.Message.*;
 import org.jparsec.core.Parser.Logger;
 import static org.jparsec.core.Parser.Logger.*;
+import org.jparsec.core.Parser.Logger.Log;
+import static org.jparsec.core.Parser.Logger.Log.*;
+import org.jparsec.core.Parser.Context;
+import static org.jparsec.core.Parser.Context.*;
 import org.jparsec.core.Parser.Environment;
 import static org.jparsec.core.Parser.Environment.*;
 import org.jparsec.core.Parser.Result;
 import static org.jparsec.core.Parser.Result.*;
+import org.jparsec.core.Parser.Cursor;
+import static org.jparsec.core.Parser.Cursor.*;
+import org.jparsec.core.Parser.Fast;
+import static org.jparsec.core.Parser.Fast.*;
+import org.jparsec.core.Parser.Grammar;
+import static org.jparsec.core.Parser.Grammar.*;
 
 import static org.jparsec.core.Parser.Notation.*;
 
@@ -39,7 +61,10 @@ import static org.monadium.core.data.Unit.*;
 import static org.monadium.core.Notation.*;
 import static org.monadium.core.control.Trampoline.Notation.*;
 
-public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Result<S, U, E, A>>> parser) {
+public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Result<S, U, E, A>>> parser, Fast<S, U, E, A> fast, Grammar<S, U, E, A> grammar) {
+	public Parser(Function<Environment<S, U, E>, Trampoline<Result<S, U, E, A>>> parser) { this(parser, interpret(parser)); }
+	public Parser(Function<Environment<S, U, E>, Trampoline<Result<S, U, E, A>>> parser, Fast<S, U, E, A> fast) { this(parser, fast, opaque()); }
+
 	public record Location(String tag, int offset, int line, int column) implements Comparable<Location> {
 		public static Location location(String tag, int offset, int line, int column) { return new Location(tag, offset, line, column); }
 		public static Location location() { return location("<unknown>", 0, 1, 1); }
@@ -63,6 +88,32 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 		}
 		@Override public String toString() { return "(tag: " + tag() + ", offset: " + offset() + ", line: " + line() + ", column: " + column() + ")"; }
 	}
+	public static final class Lines {
+		private final Location origin;
+		private int[] starts;
+		private int size;
+		private Location cached;
+
+		private Lines(Location origin) { this.origin = origin; this.starts = new int[16]; this.cached = origin; }
+
+		public static Lines lines(Location origin) { return new Lines(origin); }
+
+		public Location origin() { return origin; }
+		public void newline(int start) {
+			if (size > 0 && start <= starts[size - 1]) return;
+			if (size == starts.length) starts = Arrays.copyOf(starts, size * 2);
+			starts[size++] = start;
+		}
+		public Location location(int offset) {
+			Location location = cached;
+			if (location.offset() == offset) return location;
+			int i = 0, j = size;
+			while (i < j) { int m = i + j >>> 1; if (starts[m] <= offset) i = m + 1; else j = m; }
+			return cached = i == 0
+				? Location.location(origin.tag(), offset, origin.line(), origin.column() + offset - origin.offset())
+				: Location.location(origin.tag(), offset, origin.line() + i, offset - starts[i - 1] + 1);
+		}
+	}
 	public sealed interface Message<E> {
 		enum Type {
 			INFO("Info", true),
@@ -126,18 +177,34 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 
 		@Override String toString();
 	}
-	public record Logger<E>(SortedMap<Location, EnumMap<Message.Type, List<Message<E>>>> logMap) {
+	public record Logger<E>(Maybe<Location> location, Log<E> log, Note<E> notes) {
+		public sealed interface Log<E> {
+			record None<E>() implements Log<E> {}
+			record Strict<E>(Message<E> message) implements Log<E> {}
+			record Lazy<E>(Supplier<Message<E>> message) implements Log<E> {}
+			record Append<E>(Log<E> init, Log<E> last) implements Log<E> {}
+
+			static <E> Log<E> none() { return new None<>(); }
+			static <E> Log<E> strict(Message<E> message) { return new Strict<>(message); }
+			static <E> Log<E> lazy(Supplier<Message<E>> message) { return new Lazy<>(message); }
+			static <E> Log<E> append(Log<E> init, Log<E> last) { return new Append<>(init, last); }
+		}
+		public record Note<E>(Location location, Message<E> message, int depth, Note<E> source, Note<E> next) {
+			static <E> Note<E> note(Location location, Message<E> message, Note<E> next) { return new Note<>(location, message, depth(next) + 1, null, next); }
+			static <E> Note<E> note(Note<E> note, Note<E> next) { return new Note<>(note.location(), note.message(), depth(next) + 1, note.origin(), next); }
+			static int depth(Note<?> note) { return note == null ? 0 : note.depth(); }
+
+			public Note<E> origin() { return source() == null ? this : source(); }
+		}
+
 		@SafeVarargs public static <E> Logger<E> logger(Location location, Message<E>... messages) {
-			SortedMap<Location, EnumMap<Message.Type, List<Message<E>>>> logMap = new TreeMap<>();
-			logMap.put(location, Arrays.stream(messages).collect(Collectors.toMap(
-				Message::type,
-				List::list,
-				List::concat,
-				() -> new EnumMap<>(Message.Type.class)
-			)));
-			return new Logger<>(logMap);
+			Log<E> log = Log.none();
+			Note<E> notes = null;
+			for (Message<E> message : messages) if (isSyntax(message)) log = Log.append(log, Log.strict(message)); else notes = Note.note(location, message, notes);
+			return new Logger<>(log instanceof None<E> && notes != null ? nothing() : just(location), log, notes);
 		}
-		public static <E> Logger<E> logger() { return new Logger<>(new TreeMap<>()); }
+		public static <E> Logger<E> logger(Location location, Supplier<Message<E>> message) { return new Logger<>(just(location), Log.lazy(message), null); }
+		public static <E> Logger<E> logger() { return new Logger<>(nothing(), Log.none(), null); }
 
 		public Stream<Tuple<Location, Message<E>>> messages() {
 			return logMap().entrySet().stream()
@@ -145,18 +212,78 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 				.flatMap(messages -> messages.stream()
 				.map(message -> tuple(entry.getKey(), message))));
 		}
+		public SortedMap<Location, EnumMap<Message.Type, List<Message<E>>>> logMap() {
+			SortedMap<Location, EnumMap<Message.Type, List<Message<E>>>> logMap = new TreeMap<>();
+			location().stream().forEach(location -> logMap.put(location, messageMap()));
+			java.util.List<Note<E>> notes = new ArrayList<>();
+			for (Note<E> note = notes(); note != null; note = note.next()) notes.add(note);
+			for (int i = notes.size() - 1; i >= 0; i--) logMap.computeIfAbsent(notes.get(i).location(), location -> new EnumMap<>(Message.Type.class)).merge(notes.get(i).message().type(), List.list(notes.get(i).message()), List::concat);
+			return logMap;
+		}
+		EnumMap<Message.Type, List<Message<E>>> messageMap() {
+			java.util.List<Message<E>> messages = new ArrayList<>();
+			Deque<Log<E>> pending = new ArrayDeque<>();
+			pending.push(log());
+			while (!pending.isEmpty()) switch (pending.pop()) {
+				case None<E> p1 -> {}
+				case Strict<E> p1 -> messages.add(p1.message());
+				case Lazy<E> p1 -> messages.add(p1.message().get());
+				case Append<E> p1 -> { pending.push(p1.last()); pending.push(p1.init()); }
+			}
+			return messages.stream().collect(Collectors.toMap(
+				Message::type,
+				List::list,
+				List::concat,
+				() -> new EnumMap<>(Message.Type.class)
+			));
+		}
 		public Logger<E> concat(Logger<E> logger) {
-			SortedMap<Location, EnumMap<Message.Type, List<Message<E>>>> logMap1 = this.logMap();
-			SortedMap<Location, EnumMap<Message.Type, List<Message<E>>>> logMap2 = logger.logMap();
-			SortedMap<Location, EnumMap<Message.Type, List<Message<E>>>> logMap3 = new TreeMap<>(logMap1);
-			logMap2.forEach((location, messageMap) -> logMap3.merge(location, messageMap, (messageMap1, messageMap2) -> {
-				EnumMap<Message.Type, List<Message<E>>> messageMap3 = new EnumMap<>(messageMap1);
-				messageMap2.forEach((type, messages) -> messageMap3.merge(type, messages, List::concat));
-				return messageMap3;
-			}));
-			return new Logger<>(logMap3);
-		}
-		@SafeVarargs public final Logger<E> log(Location location, Message<E>... messages) { return concat(logger(location, messages)); }
+			Note<E> notes = merge(notes(), logger.notes());
+			return switch (location()) {
+				case Nothing<Location> p1 -> new Logger<>(logger.location(), logger.log(), notes);
+				case Just<Location> p1 -> switch (logger.location()) {
+					case Nothing<Location> p2 -> new Logger<>(location(), log(), notes);
+					case Just<Location> p2 -> {
+						int ord = p1.a().compareTo(p2.a());
+						yield ord > 0 ? new Logger<>(location(), log(), notes) : ord < 0 ? new Logger<>(logger.location(), logger.log(), notes) : new Logger<>(location(), Log.append(log(), logger.log()), notes);
+					}
+				};
+			};
+		}
+		@SafeVarargs public final Logger<E> log(Location location, Message<E>... messages) {
+			if (messages.length == 0) return isFurther(location) ? this : concat(logger(location, messages));
+			for (Message<E> message : messages) if (!isSyntax(message) || !isFurther(location)) return concat(logger(location, messages));
+			return this;
+		}
+		public Logger<E> log(Location location, Supplier<Message<E>> message) { return isFurther(location) ? this : concat(logger(location, message)); }
+		public Logger<E> discard(int offset) {
+			return location() instanceof Just<Location> p1 && p1.a().offset() < offset ? new Logger<>(nothing(), Log.none(), notes()) : this;
+		}
+		boolean isFurther(Location location) {
+			return switch (location()) {
+				case Nothing<Location> p1 -> false;
+				case Just<Location> p1 -> p1.a().compareTo(location) > 0;
+			};
+		}
+		static boolean isSyntax(Message<?> message) { return message.type() == Message.Type.EXPECTED || message.type() == Message.Type.UNEXPECTED; }
+		static <E> Note<E> merge(Note<E> notes1, Note<E> notes2) {
+			if (notes1 == notes2 || notes2 == null) return notes1;
+			if (notes1 == null) return notes2;
+			java.util.List<Note<E>> fresh1 = new ArrayList<>(), fresh2 = new ArrayList<>();
+			while (notes1 != notes2) {
+				int depth1 = Note.depth(notes1), depth2 = Note.depth(notes2);
+				if (depth1 >= depth2) { fresh1.add(notes1); notes1 = notes1.next(); }
+				if (depth2 >= depth1) { fresh2.add(notes2); notes2 = notes2.next(); }
+			}
+			if (fresh2.isEmpty()) return fresh1.get(0);
+			if (fresh1.isEmpty()) return fresh2.get(0);
+			Set<Note<E>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (Note<E> note : fresh1) seen.add(note.origin());
+			fresh2.removeIf(note -> seen.contains(note.origin()));
+			Note<E> notes = fresh1.get(0);
+			for (int i = fresh2.size() - 1; i >= 0; i--) notes = Note.note(fresh2.get(i), notes);
+			return notes;
+		}
 
 		static <E> String printSingleline(Message.Type type, List<Message<E>> messages, String prefix) {
 			return prefix + type.key + ": " + String.join(", ", messages.stream()
@@ -184,23 +311,136 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 				.map(entry -> entry.getKey().compact() + ":\n" + printMessages(entry.getValue(), "    "))
 				.toArray(CharSequence[]::new));
 		}
+		@Override public boolean equals(Object x) { return x instanceof Logger<?> x0 && x0.logMap().equals(logMap()); }
+		@Override public int hashCode() { return logMap().hashCode(); }
 	}
-	public record Environment<S, U, E>(S stream, U user, Location location, Logger<E> logger) {
-		public static <S, U, E> Environment<S, U, E> environment(S stream, U user, Location location, Logger<E> logger) { return new Environment<>(stream, user, location, logger); }
-
-		public <A> Environment<A, U, E> updateStream(A stream) { return environment(stream, user(), location(), logger()); }
-		public <A> Environment<A, U, E> mapStream(Function<S, A> f) { return environment(f.apply(stream()), user(), location(), logger()); }
-		public <A> Environment<S, A, E> updateUser(A user) { return environment(stream(), user, location(), logger()); }
-		public <A> Environment<S, A, E> mapUser(Function<U, A> f) { return environment(stream(), f.apply(user()), location(), logger()); }
-		public Environment<S, U, E> updateLocation(Location location) { return environment(stream(), user(), location, logger()); }
-		public Environment<S, U, E> mapLocation(Function<Location, Location> f) { return environment(stream(), user(), f.apply(location()), logger()); }
-		public Environment<S, U, E> updateLogger(Logger<E> logger) { return environment(stream(), user(), location(), logger); }
-		public Environment<S, U, E> mapLogger(Function<Logger<E>, Logger<E>> f) { return environment(stream(), user(), location(), f.apply(logger())); }
+	public record Environment<S, U, E>(S stream, U user, int offset, Lines lines, Logger<E> logger, Context context) {
+		public static <S, U, E> Environment<S, U, E> environment(S stream, U user, int offset, Lines lines, Logger<E> logger, Context context) {
+			if (context != null && context.counting) context.environments++;
+			return new Environment<>(stream, user, offset, lines, logger, context);
+		}
+		public static <S, U, E> Environment<S, U, E> environment(S stream, U user, Location location, Logger<E> logger, Context context) { return environment(stream, user, location.offset(), Lines.lines(location), logger, context); }
+		public static <S, U, E> Environment<S, U, E> environment(S stream, U user, Location location, Logger<E> logger) { return environment(stream, user, location, logger, Context.context()); }
+
+		public Location location() { return lines().location(offset()); }
+
+		public <A> Environment<A, U, E> updateStream(A stream) { return environment(stream, user(), offset(), lines(), logger(), context()); }
+		public <A> Environment<A, U, E> mapStream(Function<S, A> f) { return environment(f.apply(stream()), user(), offset(), lines(), logger(), context()); }
+		public <A> Environment<S, A, E> updateUser(A user) { return environment(stream(), user, offset(), lines(), logger(), context()); }
+		public <A> Environment<S, A, E> mapUser(Function<U, A> f) { return environment(stream(), f.apply(user()), offset(), lines(), logger(), context()); }
+		public Environment<S, U, E> updateLocation(Location location) { return environment(stream(), user(), location, logger(), context()); }
+		public Environment<S, U, E> mapLocation(Function<Location, Location> f) { return updateLocation(f.apply(location())); }
+		public Environment<S, U, E> updateLogger(Logger<E> logger) { return environment(stream(), user(), offset(), lines(), logger, context()); }
+		public Environment<S, U, E> mapLogger(Function<Logger<E>, Logger<E>> f) { return environment(stream(), user(), offset(), lines(), f.apply(logger()), context()); }
+
+		public Environment<S, U, E> advance(int n) { return environment(stream(), user(), offset() + n, lines(), logger(), context()); }
+		public Environment<S, U, E> advanceCharacter(char c) {
+			if (c == '\n') lines().newline(offset() + 1);
+			return environment(stream(), user(), offset() + 1, lines(), logger(), context());
+		}
+		public Environment<S, U, E> advanceString(String s) {
+			for (int i = s.indexOf('\n'); i >= 0; i = s.indexOf('\n', i + 1)) lines().newline(offset() + i + 1);
+			return environment(stream(), user(), offset() + s.length(), lines(), logger(), context());
+		}
 
 		@SafeVarargs public final Environment<S, U, E> log(Location location, Message<E>... messages) {
-			return new Environment<>(stream(), user(), location(), logger().log(location, messages));
+			return environment(stream(), user(), offset(), lines(), logger().log(location, messages), context());
 		}
 		@SafeVarargs public final Environment<S, U, E> log(Message<E>... messages) { return log(location(), messages); }
+		public Environment<S, U, E> log(Location location, Supplier<Message<E>> message) { return environment(stream(), user(), offset(), lines(), logger().log(location, message), context()); }
+		public Environment<S, U, E> log(Supplier<Message<E>> message) { return log(location(), message); }
+
+		@Override public boolean equals(Object x) {
+			return x instanceof Environment<?, ?, ?> x0
+				&& Objects.equals(stream(), x0.stream())
+				&& Objects.equals(user(), x0.user())
+				&& location().equals(x0.location())
+				&& logger().equals(x0.logger());
+		}
+		@Override public int hashCode() { return Objects.hash(stream(), user(), location(), logger()); }
+	}
+	public static final class Context {
+		public static final int MEMO_WINDOW = 4096;
+
+		record Memo(Object user, Result<?, ?, ?, ?> result) {}
+		record Slot(int offset, HashMap<Object, Memo> memos) {}
+
+		private final int memoWindow;
+		private Slot[] slots;
+		final ArrayList<Snapshot<?, ?, ?>> snapshots = new ArrayList<>();
+		private boolean cutting;
+		private int cut = Integer.MIN_VALUE;
+		long cuts;
+		Incremental<?, ?, ?> incremental;
+		Profile profile;
+		boolean positional;
+		boolean counting;
+		long environments;
+		long results;
+
+		private Context(int memoWindow, boolean cutting) { this.memoWindow = Math.max(memoWindow, 1); this.cutting = cutting; }
+
+		public static Context context() { return context(MEMO_WINDOW); }
+		public static Context context(int memoWindow) { return context(memoWindow, false); }
+		public static Context context(int memoWindow, boolean cutting) { return new Context(memoWindow, cutting); }
+
+		public int memoWindow() { return memoWindow; }
+		public long environments() { return environments; }
+		public long results() { return results; }
+		public long cuts() { return cuts; }
+		public boolean cutting() { return cutting; }
+
+		@SuppressWarnings("unchecked") <S, U, E, A> Maybe<Result<S, U, E, A>> recall(Object key, int offset, U user) {
+			if (slots == null) return nothing();
+			Slot slot = slots[Math.floorMod(offset, memoWindow)];
+			if (slot == null || slot.offset() != offset) return nothing();
+			Memo memo = slot.memos().get(key);
+			return memo == null || !Objects.equals(memo.user(), user) ? nothing() : just((Result<S, U, E, A>) memo.result());
+		}
+		<S, U, E, A> Result<S, U, E, A> memorize(Object key, int offset, U user, Result<S, U, E, A> result) {
+			if (slots == null) slots = new Slot[memoWindow];
+			int index = Math.floorMod(offset, memoWindow);
+			if (slots[index] == null || slots[index].offset() != offset) slots[index] = new Slot(offset, new HashMap<>());
+			slots[index].memos().put(key, new Memo(user, result));
+			return result;
+		}
+		void cut(int offset) {
+			cuts++;
+			cutting = true;
+			for (Snapshot<?, ?, ?> snapshot : snapshots) snapshot.environment = null;
+			snapshots.clear();
+			if (slots != null) for (int i = Math.max(cut, offset - memoWindow); i < offset; i++) {
+				int index = Math.floorMod(i, memoWindow);
+				if (slots[index] != null && slots[index].offset() < offset) slots[index] = null;
+			}
+			cut = Math.max(cut, offset);
+		}
+		public void forget() { slots = null; }
+		static long cuts(Context context) { return context == null ? 0 : context.cuts; }
+		static <S, U, E> Environment<S, U, E> positional(Environment<S, U, E> e) { if (e.context() != null) e.context().positional = true; return e; }
+		static void forget(Context context) { if (context != null) context.forget(); }
+	}
+	static final class Snapshot<S, U, E> {
+		private final Context context;
+		private final long cuts;
+		private final int index;
+		private Environment<S, U, E> environment;
+
+		private Snapshot(Environment<S, U, E> environment) {
+			this.context = environment.context();
+			this.cuts = Context.cuts(context);
+			this.environment = environment;
+			if (context != null && context.cutting) { index = context.snapshots.size(); context.snapshots.add(this); } else index = -1;
+		}
+
+		static <S, U, E> Snapshot<S, U, E> snapshot(Environment<S, U, E> environment) { return new Snapshot<>(environment); }
+
+		Environment<S, U, E> release() {
+			if (index >= 0 && index < context.snapshots.size() && context.snapshots.get(index) == this) context.snapshots.subList(index, context.snapshots.size()).clear();
+			Environment<S, U, E> environment = Context.cuts(context) == cuts ? this.environment : null;
+			this.environment = null;
+			return environment;
+		}
 	}
 	public sealed interface Result<S, U, E, A> {
 		record Success<S, U, E, A>(Environment<S, U, E> environment, boolean consumed, A result) implements Result<S, U, E, A> {
@@ -222,8 +462,14 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 			@Override public boolean coerceAbort() throws Undefined { return halt(); }
 		}
 
-		static <S, U, E, A> Result<S, U, E, A> success(Environment<S, U, E> environment, boolean consumed, A result) { return new Success<>(environment, consumed, result); }
-		static <S, U, E, A> Result<S, U, E, A> fail(Environment<S, U, E> environment, boolean consumed, boolean halt) { return new Fail<>(environment, consumed, halt); }
+		static <S, U, E, A> Result<S, U, E, A> success(Environment<S, U, E> environment, boolean consumed, A result) {
+			if (environment.context() != null && environment.context().counting) environment.context().results++;
+			return new Success<>(environment, consumed, result);
+		}
+		static <S, U, E, A> Result<S, U, E, A> fail(Environment<S, U, E> environment, boolean consumed, boolean halt) {
+			if (environment.context() != null && environment.context().counting) environment.context().results++;
+			return new Fail<>(environment, consumed, halt);
+		}
 
 		boolean isSuccess();
 		boolean isFail();
@@ -233,36 +479,192 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 		A coerceResult() throws Undefined;
 		boolean coerceAbort() throws Undefined;
 	}
+	public static final class Cursor<S, U, E> {
+		public record Mark<S, U, E>(S stream, U user, int offset, Lines lines, Logger<E> logger) {}
+
+		private S stream;
+		private U user;
+		private int offset;
+		private Lines lines;
+		private Logger<E> logger;
+		private Context context;
+		private boolean consumed;
+		private boolean halt;
+		private Object result;
+
+		private Cursor(Environment<S, U, E> environment) { reset(environment); }
+
+		public static <S, U, E> Cursor<S, U, E> cursor(Environment<S, U, E> environment) { return new Cursor<>(environment); }
+		public static <S, U, E> Cursor<S, U, E> cursor(S stream, U user) { return cursor(Environment.environment(stream, user, Location.location(), Logger.logger())); }
+
+		public Cursor<S, U, E> reset(Environment<S, U, E> environment) {
+			updateEnvironment(environment);
+			consumed = false;
+			halt = false;
+			result = null;
+			return this;
+		}
+		public Cursor<S, U, E> clear() {
+			stream = null;
+			user = null;
+			lines = null;
+			logger = null;
+			context = null;
+			result = null;
+			return this;
+		}
+		public Mark<S, U, E> mark() { return new Mark<>(stream, user, offset, lines, logger); }
+		public void reset(Mark<S, U, E> mark) {
+			stream = mark.stream();
+			user = mark.user();
+			offset = mark.offset();
+			lines = mark.lines();
+			logger = mark.logger();
+		}
+
+		public S stream() { return stream; }
+		public U user() { return user; }
+		public Location location() { return lines.location(offset); }
+		public Logger<E> logger() { return logger; }
+		public Context context() { return context; }
+		public int offset() { return offset; }
+		public Environment<S, U, E> environment() { return Environment.environment(stream, user, offset, lines, logger, context); }
+		public boolean consumed() { return consumed; }
+		public boolean halt() { return halt; }
+		@SuppressWarnings("unchecked") public <A> A result() { return (A) result; }
+
+		public void updateStream(S stream) { this.stream = stream; }
+		public void updateUser(U user) { this.user = user; }
+		public void updateLocation(Location location) {
+			offset = location.offset();
+			lines = Lines.lines(location);
+		}
+		public void updateLogger(Logger<E> logger) { this.logger = logger; }
+		public void updateEnvironment(Environment<S, U, E> environment) {
+			stream = environment.stream();
+			user = environment.user();
+			offset = environment.offset();
+			lines = environment.lines();
+			logger = environment.logger();
+			context = environment.context();
+		}
+		public void advance(int n) { offset += n; }
+		public void advanceCharacter(char c) {
+			if (c == '\n') lines.newline(offset + 1);
+			offset++;
+		}
+		public void advanceString(String s) {
+			for (int i = s.indexOf('\n'); i >= 0; i = s.indexOf('\n', i + 1)) lines.newline(offset + i + 1);
+			offset += s.length();
+		}
+
+		@SafeVarargs public final void log(Location location, Message<E>... messages) { logger = logger.log(location, messages); }
+		@SafeVarargs public final void log(Message<E>... messages) { log(location(), messages); }
+		public void log(Location location, Supplier<Message<E>> message) { logger = logger.log(location, message); }
+		public void log(Supplier<Message<E>> message) { log(location(), message); }
+
+		public <A> boolean updateResult(Result<S, U, E, A> result) {
+			updateEnvironment(result.getEnvironment());
+			return switch (result) {
+				case Success<S, U, E, A> p1 -> success(p1.consumed(), p1.result());
+				case Fail<S, U, E, A> p1 -> fail(p1.consumed(), p1.halt());
+			};
+		}
+		public boolean success(boolean consumed, Object result) { this.consumed = consumed; this.halt = false; this.result = result; return true; }
+		public boolean fail(boolean consumed, boolean halt) { this.consumed = consumed; this.halt = halt; this.result = null; return false; }
+	}
+	public interface Fast<S, U, E, A> {
+		static <S, U, E, A> Fast<S, U, E, A> interpret(Function<Environment<S, U, E>, Trampoline<Result<S, U, E, A>>> parser) {
+			return c -> c.updateResult(parser.apply(c.environment()).run());
+		}
+
+		boolean run(Cursor<S, U, E> cursor);
+	}
+	public sealed interface Grammar<S, U, E, A> {
+		record Opaque<S, U, E, A>() implements Grammar<S, U, E, A> {}
+		record Satisfy<U, E>(CharPredicate predicate) implements Grammar<Text, U, E, Character> {}
+		record Literal<U, E>(String string) implements Grammar<Text, U, E, String> {}
+		record Strings<U, E, A>(Collection<String> strings) implements Grammar<Text, U, E, A> {}
+		record Attempt<S, U, E, A>(Parser<S, U, E, A> parser) implements Grammar<S, U, E, A> {}
+		record Sequence<S, U, E>(Parser<S, U, E, ?>[] parsers) implements Grammar<S, U, E, Unit> {}
+		record Choice<S, U, E, A>(Parser<S, U, E, A>[] parsers, int[][] table) implements Grammar<S, U, E, A> {
+			public static final int EOF = 128;
+
+			public Choice(Parser<S, U, E, A>[] parsers) { this(parsers, table(parsers)); }
+
+			public static int index(Object stream) {
+				return switch (stream) {
+					case Text.Empty p1 -> EOF;
+					case Text.Nonempty p1 -> p1.head() < EOF ? p1.head() : -1;
+					default -> -1;
+				};
+			}
+			private static int[][] table(Parser<?, ?, ?, ?>[] parsers) {
+				CharPredicate[] firsts = Arrays.stream(parsers).map(p -> p.grammar().firstSet()).toArray(CharPredicate[]::new);
+				if (Arrays.stream(firsts).allMatch(Objects::isNull)) return null;
+				int[][] table = new int[EOF + 1][];
+				HashMap<java.util.List<Integer>, int[]> shared = new HashMap<>();
+				for (int i = 0; i <= EOF; i++) {
+					char c = (char) i;
+					int[] candidates = IntStream.range(0, parsers.length).filter(j -> firsts[j] == null || c < EOF && firsts[j].test(c)).toArray();
+					if (candidates.length > 0 && candidates.length < parsers.length) table[i] = shared.computeIfAbsent(Arrays.stream(candidates).boxed().toList(), k -> candidates);
+				}
+				return table;
+			}
+		}
+		record Mapping<S, U, E, A, B>(Parser<S, U, E, A> parser, Function<A, B> f) implements Grammar<S, U, E, B> {}
+		record Between<S, U, E, A>(Parser<S, U, E, ?> begin, Parser<S, U, E, ?> end, Parser<S, U, E, A> parser) implements Grammar<S, U, E, A> {}
+		record Repeat<S, U, E, A, C, B>(boolean required, Parser<S, U, E, A> first, Parser<S, U, E, A> rest, Supplier<C> buffer, BiConsumer<C, A> add, Function<C, B> finish) implements Grammar<S, U, E, B> {}
+
+		static <S, U, E, A> Grammar<S, U, E, A> opaque() { return new Opaque<>(); }
+
+		default CharPredicate firstSet() {
+			return switch (this) {
+				case Satisfy<?, ?> g -> g.predicate() instanceof CharPredicate.Pure ? g.predicate() : null;
+				case Literal<?, ?> g -> g.string().isEmpty() ? null : CharPredicate.is(g.string().charAt(0));
+				case Strings<?, ?, ?> g -> g.strings().contains("") ? null : CharPredicate.anyOf(g.strings().stream().map(s -> String.valueOf(s.charAt(0))).collect(Collectors.joining()).toCharArray());
+				case Attempt<?, ?, ?, ?> g -> g.parser().grammar().firstSet();
+				case Sequence<?, ?, ?> g -> g.parsers().length == 0 ? null : g.parsers()[0].grammar().firstSet();
+				case Choice<?, ?, ?, ?> g -> Arrays.stream(g.parsers()).map(p -> p.grammar().firstSet()).reduce((p1, p2) -> p1 == null || p2 == null ? null : p1.or(p2)).orElse(null);
+				case Mapping<?, ?, ?, ?, ?> g -> g.parser().grammar().firstSet();
+				case Between<?, ?, ?, ?> g -> g.begin().grammar().firstSet();
+				case Repeat<?, ?, ?, ?, ?, ?> g -> g.required() ? g.first().grammar().firstSet() : null;
+				case Opaque<?, ?, ?, ?> g -> null;
+			};
+		}
+	}
 
 	public static <S, U, E, A> Parser<S, U, E, A> parser(Function<Environment<S, U, E>, Trampoline<Result<S, U, E, A>>> parser) { return new Parser<>(parser); }
-	public static <S, U, E, A> Parser<S, U, E, A> simple(A a) { return parser(e -> done(success(e, false, a))); }
-	public static <S, U, E, A> Parser<S, U, E, A> ignore() { return parser(e -> done(fail(e, false, false))); }
+	public static <S, U, E, A> Parser<S, U, E, A> parser(Function<Environment<S, U, E>, Trampoline<Result<S, U, E, A>>> parser, Fast<S, U, E, A> fast) { return new Parser<>(parser, fast); }
+	public static <S, U, E, A> Parser<S, U, E, A> parser(Function<Environment<S, U, E>, Trampoline<Result<S, U, E, A>>> parser, Fast<S, U, E, A> fast, Grammar<S, U, E, A> grammar) { return new Parser<>(parser, fast, grammar); }
+	public static <S, U, E, A> Parser<S, U, E, A> simple(A a) { return parser(e -> done(success(e, false, a)), c -> c.success(false, a)); }
+	public static <S, U, E, A> Parser<S, U, E, A> ignore() { return parser(e -> done(fail(e, false, false)), c -> c.fail(false, false)); }
 	public static <S, U, E, A> Parser<S, U, E, A> panic() { return halt(internal("Parser panicked")); }
-	public static <S, U, E, A> Parser<S, U, E, A> recur(Function<Unit, Parser<S, U, E, A>> f) { return parser(e -> more(() -> f.apply(unit()).parser().apply(e))); }
+	public static <S, U, E, A> Parser<S, U, E, A> recur(Function<Unit, Parser<S, U, E, A>> f) { return parser(e -> more(() -> f.apply(unit()).parser().apply(e)), c -> f.apply(unit()).fast().run(c)); }
 	public static <S, U, E, A> Parser<S, U, E, A> recur(Supplier<Parser<S, U, E, A>> f) { return recur(u -> f.get()); }
 
-	public static <S, U, E> Parser<S, U, E, Environment<S, U, E>> getEnvironment() { return parser(e -> done(success(e, false, e))); }
-	public static <S, U, E> Parser<S, U, E, Unit> setEnvironment(Environment<S, U, E> environment) { return parser(e -> done(success(environment, false, unit()))); }
-	public static <S, U, E> Parser<S, U, E, Unit> modifyEnvironment(Function<Environment<S, U, E>, Environment<S, U, E>> f) { return parser(e -> done(success(f.apply(e), false, unit()))); }
-	public static <S, U, E> Parser<S, U, E, S> getStream() { return parser(e -> done(success(e, false, e.stream()))); }
-	public static <S, U, E> Parser<S, U, E, Unit> setStream(S stream) { return parser(e -> done(success(e.updateStream(stream), false, unit()))); }
-	public static <S, U, E> Parser<S, U, E, Unit> modifyStream(Function<S, S> f) { return parser(e -> done(success(e.mapStream(f), false, unit()))); }
-	public static <S, U, E> Parser<S, U, E, U> getUser() { return parser(e -> done(success(e, false, e.user()))); }
-	public static <S, U, E> Parser<S, U, E, Unit> setUser(U user) { return parser(e -> done(success(e.updateUser(user), false, unit()))); }
-	public static <S, U, E> Parser<S, U, E, Unit> modifyUser(Function<U, U> f) { return parser(e -> done(success(e.mapUser(f), false, unit()))); }
-	public static <S, U, E> Parser<S, U, E, Location> getLocation() { return parser(e -> done(success(e, false, e.location()))); }
-	public static <S, U, E> Parser<S, U, E, Unit> setLocation(Location location) { return parser(e -> done(success(e.updateLocation(location), false, unit()))); }
-	public static <S, U, E> Parser<S, U, E, Unit> modifyLocation(Function<Location, Location> f) { return parser(e -> done(success(e.mapLocation(f), false, unit()))); }
-	public static <S, U, E> Parser<S, U, E, Logger<E>> getLogger() { return parser(e -> done(success(e, false, e.logger()))); }
-	public static <S, U, E> Parser<S, U, E, Unit> setLogger(Logger<E> logger) { return parser(e -> done(success(e.updateLogger(logger), false, unit()))); }
-	public static <S, U, E> Parser<S, U, E, Unit> modifyLogger(Function<Logger<E>, Logger<E>> f) { return parser(e -> done(success(e.mapLogger(f), false, unit()))); }
+	public static <S, U, E> Parser<S, U, E, Environment<S, U, E>> getEnvironment() { return parser(e -> done(success(e, false, Context.positional(e))), c -> c.success(false, c.environment())); }
+	public static <S, U, E> Parser<S, U, E, Unit> setEnvironment(Environment<S, U, E> environment) { return parser(e -> done(success(forget(e, environment), false, unit())), c -> { c.updateEnvironment(forget(c.environment(), environment)); return c.success(false, unit()); }); }
+	public static <S, U, E> Parser<S, U, E, Unit> modifyEnvironment(Function<Environment<S, U, E>, Environment<S, U, E>> f) { return parser(e -> done(success(forget(e, f.apply(e)), false, unit())), c -> { c.updateEnvironment(forget(c.environment(), f.apply(c.environment()))); return c.success(false, unit()); }); }
+	public static <S, U, E> Parser<S, U, E, S> getStream() { return parser(e -> done(success(e, false, Context.positional(e).stream())), c -> c.success(false, c.stream())); }
+	public static <S, U, E> Parser<S, U, E, Unit> setStream(S stream) { return parser(e -> done(success(forget(e, e.updateStream(stream).updateLocation(e.location())), false, unit())), c -> { Context.forget(c.context()); c.updateStream(stream); c.updateLocation(c.location()); return c.success(false, unit()); }); }
+	public static <S, U, E> Parser<S, U, E, Unit> modifyStream(Function<S, S> f) { return parser(e -> done(success(forget(e, e.mapStream(f).updateLocation(e.location())), false, unit())), c -> { Context.forget(c.context()); c.updateStream(f.apply(c.stream())); c.updateLocation(c.location()); return c.success(false, unit()); }); }
+	public static <S, U, E> Parser<S, U, E, U> getUser() { return parser(e -> done(success(e, false, e.user())), c -> c.success(false, c.user())); }
+	public static <S, U, E> Parser<S, U, E, Unit> setUser(U user) { return parser(e -> done(success(e.updateUser(user), false, unit())), c -> { c.updateUser(user); return c.success(false, unit()); }); }
+	public static <S, U, E> Parser<S, U, E, Unit> modifyUser(Function<U, U> f) { return parser(e -> done(success(e.mapUser(f), false, unit())), c -> { c.updateUser(f.apply(c.user())); return c.success(false, unit()); }); }
+	public static <S, U, E> Parser<S, U, E, Location> getLocation() { return parser(e -> done(success(e, false, Context.positional(e).location())), c -> c.success(false, c.location())); }
+	public static <S, U, E> Parser<S, U, E, Unit> setLocation(Location location) { return parser(e -> done(success(forget(e, e.updateLocation(location)), false, unit())), c -> { Context.forget(c.context()); c.updateLocation(location); return c.success(false, unit()); }); }
+	public static <S, U, E> Parser<S, U, E, Unit> modifyLocation(Function<Location, Location> f) { return parser(e -> done(success(forget(e, e.mapLocation(f)), false, unit())), c -> { Context.forget(c.context()); c.updateLocation(f.apply(c.location())); return c.success(false, unit()); }); }
+	public static <S, U, E> Parser<S, U, E, Logger<E>> getLogger() { return parser(e -> done(success(e, false, Context.positional(e).logger())), c -> c.success(false, c.logger())); }
+	public static <S, U, E> Parser<S, U, E, Unit> setLogger(Logger<E> logger) { return parser(e -> done(success(e.updateLogger(logger), false, unit())), c -> { c.updateLogger(logger); return c.success(false, unit()); }); }
+	public static <S, U, E> Parser<S, U, E, Unit> modifyLogger(Function<Logger<E>, Logger<E>> f) { return parser(e -> done(success(e.mapLogger(f), false, unit())), c -> { c.updateLogger(f.apply(c.logger())); return c.success(false, unit()); }); }
 
 	public static <S, U, E, A, L> Parser<S, U, E, A> localStream(Parser<L, U, E, A> parser, Function<S, L> f) {
 		return parser(e -> $do(
-		$(	parser.parser().apply(e.mapStream(f))																					, result1 ->
+		$(	parser.parser().apply(forget(e, e.mapStream(f).updateLocation(e.location())))																		, result1 ->
 		$(	switch (result1) {
-				case Success<L, U, E, A> p1 -> done(success(p1.environment().updateStream(e.stream()), p1.consumed(), p1.result()));
-				case Fail<L, U, E, A> p1 -> done(fail(p1.environment().updateStream(e.stream()), p1.consumed(), p1.halt()));
+				case Success<L, U, E, A> p1 -> done(success(forget(e, p1.environment().updateStream(e.stream()).updateLocation(p1.environment().location())), p1.consumed(), p1.result()));
+				case Fail<L, U, E, A> p1 -> done(fail(forget(e, p1.environment().updateStream(e.stream()).updateLocation(p1.environment().location())), p1.consumed(), p1.halt()));
 			}																														))
 		));
 	}
@@ -276,9 +678,9 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 		));
 	}
 
-	@SafeVarargs public static <S, U, E> Parser<S, U, E, Unit> log(Message<E>... messages) { return parser(e -> done(success(e.log(messages), false, unit()))); }
-	@SafeVarargs public static <S, U, E, A> Parser<S, U, E, A> stop(Message<E>... messages) { return parser(e -> done(fail(e.log(messages), false, false))); }
-	@SafeVarargs public static <S, U, E, A> Parser<S, U, E, A> halt(Message<E>... messages) { return parser(e -> done(fail(e.log(messages), false, true))); }
+	@SafeVarargs public static <S, U, E> Parser<S, U, E, Unit> log(Message<E>... messages) { return parser(e -> done(success(e.log(messages), false, unit())), c -> { c.log(messages); return c.success(false, unit()); }); }
+	@SafeVarargs public static <S, U, E, A> Parser<S, U, E, A> stop(Message<E>... messages) { return parser(e -> done(fail(e.log(messages), false, false)), c -> { c.log(messages); return c.fail(false, false); }); }
+	@SafeVarargs public static <S, U, E, A> Parser<S, U, E, A> halt(Message<E>... messages) { return parser(e -> done(fail(e.log(messages), false, true)), c -> { c.log(messages); return c.fail(false, true); }); }
 	@SafeVarargs public static <S, U, E> Parser<S, U, E, Unit> ensure(boolean condition, Message<E>... messages) { return condition ? simple(unit()) : stop(messages); }
 	@SafeVarargs public static <S, U, E, A> Parser<S, U, E, A> conclude(Parser<S, U, E, A> parser, Message<E>... messages) {
 		return parser(e -> $do(
@@ -287,7 +689,13 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 				case Success<S, U, E, A> p1 -> done(success(p1.environment(), p1.consumed(), p1.result()));
 				case Fail<S, U, E, A> p1 -> done(fail(p1.environment().updateLogger(e.logger().log(e.location(), messages)), p1.consumed(), p1.halt()));
 			}																																			))
-		));
+		), c -> {
+			Location location = c.location();
+			Logger<E> logger = c.logger();
+			if (parser.fast().run(c)) return true;
+			c.updateLogger(logger.log(location, messages));
+			return false;
+		}, parser.grammar() instanceof Satisfy<?, ?> || parser.grammar() instanceof Literal<?, ?> || parser.grammar() instanceof Strings<?, ?, ?> ? parser.grammar() : opaque());
 	}
 	@SafeVarargs public static <S, U, E, A> Parser<S, U, E, A> supplement(Parser<S, U, E, A> parser, Message<E>... messages) {
 		return parser(e -> $do(
@@ -296,7 +704,12 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 				case Success<S, U, E, A> p1 -> done(success(p1.environment(), p1.consumed(), p1.result()));
 				case Fail<S, U, E, A> p1 -> done(fail(p1.environment().log(e.location(), messages), p1.consumed(), p1.halt()));
 			}																													))
-		));
+		), c -> {
+			Location location = c.location();
+			if (parser.fast().run(c)) return true;
+			c.log(location, messages);
+			return false;
+		});
 	}
 	public static <S, U, E, A> Parser<S, U, E, A> suppress(Parser<S, U, E, A> parser) {
 		return parser(e -> $do(
@@ -305,7 +718,12 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 				case Success<S, U, E, A> p1 -> done(success(p1.environment(), p1.consumed(), p1.result()));
 				case Fail<S, U, E, A> p1 -> done(fail(p1.environment().updateLogger(e.logger()), p1.consumed(), p1.halt()));
 			}																												))
-		));
+		), c -> {
+			Logger<E> logger = c.logger();
+			if (parser.fast().run(c)) return true;
+			c.updateLogger(logger);
+			return false;
+		});
 	}
 
 	public static <S, U, E, A> Parser<S, U, E, A> lookahead(Parser<S, U, E, A> parser) {
@@ -315,17 +733,53 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 				case Success<S, U, E, A> p1 -> done(success(e.updateLogger(p1.environment().logger()), false, p1.result()));
 				case Fail<S, U, E, A> p1 -> done(fail(p1.environment(), p1.consumed(), p1.halt()));
 			}																												))
-		));
+		), c -> {
+			Mark<S, U, E> mark = c.mark();
+			if (!parser.fast().run(c)) return false;
+			Logger<E> logger = c.logger();
+			c.reset(mark);
+			c.updateLogger(logger);
+			return c.success(false, c.result());
+		});
 	}
 	public static <S, U, E, A> Parser<S, U, E, A> attempt(Parser<S, U, E, A> parser) {
-		return parser(e -> $do(
-		$(	parser.parser().apply(e)																				, result1 ->
-		$(	switch (result1) {
-				case Success<S, U, E, A> p1 -> done(success(p1.environment(), p1.consumed(), p1.result()));
-				case Fail<S, U, E, A> p1 -> done(fail(e.updateLogger(p1.environment().logger()), false, p1.halt()));
-			}																										))
-		));
+		return parser(e -> {
+			Snapshot<S, U, E> snapshot = Snapshot.snapshot(e);
+			return $do(
+			$(	parser.parser().apply(e)																			, result1 ->
+			$(	switch (result1) {
+					case Success<S, U, E, A> p1 -> { snapshot.release(); yield done(success(p1.environment(), p1.consumed(), p1.result())); }
+					case Fail<S, U, E, A> p1 -> {
+						Environment<S, U, E> e1 = snapshot.release();
+						yield e1 == null
+							? done(fail(p1.environment(), true, p1.halt()))
+							: done(fail(e1.updateLogger(p1.environment().logger()), false, p1.halt()));
+					}
+				}																									))
+			);
+		}, c -> {
+			Mark<S, U, E> mark = c.mark();
+			long cuts = Context.cuts(c.context());
+			if (parser.fast().run(c)) return true;
+			if (Context.cuts(c.context()) != cuts) return c.fail(true, c.halt());
+			Logger<E> logger = c.logger();
+			c.reset(mark);
+			c.updateLogger(logger);
+			return c.fail(false, c.halt());
+		}, new Attempt<>(parser));
+	}
+	public static <S, U, E> Parser<S, U, E, Unit> commit() {
+		return parser(e -> {
+			if (e.context() != null) e.context().cut(e.offset());
+			return done(success(Environment.environment(e.stream(), e.user(), e.location(), e.logger().discard(e.offset()), e.context()), true, unit()));
+		}, c -> {
+			if (c.context() != null) c.context().cut(c.offset());
+			c.updateLocation(c.location());
+			c.updateLogger(c.logger().discard(c.offset()));
+			return c.success(true, unit());
+		});
 	}
+	public static <S, U, E, A> Parser<S, U, E, A> cut(Parser<S, U, E, A> parser) { return parser.flatMap(a -> Parser.<S, U, E>commit().map(u -> a)); }
 	public static <S, U, E, A> Parser<S, U, E, A> advancing(Parser<S, U, E, A> parser) {
 		return parser(e -> $do(
 		$(	parser.parser().apply(e)																	, result1 ->
@@ -335,7 +789,12 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 					: done(fail(p1.environment().log(internal("Parser not advancing")), false, false));
 				case Fail<S, U, E, A> p1 -> done(fail(p1.environment(), p1.consumed(), p1.halt()));
 			}																							))
-		));
+		), c -> {
+			if (!parser.fast().run(c)) return false;
+			if (c.consumed()) return true;
+			c.log(internal("Parser not advancing"));
+			return c.fail(false, false);
+		});
 	}
 	public static <S, U, E, A> Parser<S, U, E, Tuple<Boolean, A>> inspect(Parser<S, U, E, A> parser) {
 		return parser(e -> $do(
@@ -344,10 +803,46 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 				case Success<S, U, E, A> p1 -> done(success(p1.environment(), p1.consumed(), tuple(p1.consumed(), p1.result())));
 				case Fail<S, U, E, A> p1 -> done(fail(p1.environment(), p1.consumed(), p1.halt()));
 			}																														))
-		));
+		), c -> parser.fast().run(c) && c.success(c.consumed(), tuple(c.consumed(), c.<A>result())));
+	}
+
+	public static <S, U, E, A> Parser<S, U, E, A> memo(Parser<S, U, E, A> parser) {
+		Object key = new Object();
+		return parser(e -> e.context() == null ? parser.parser().apply(e) : switch (e.context().<S, U, E, A>recall(key, e.offset(), e.user())) {
+			case Just<Result<S, U, E, A>> p1 -> done(replay(p1.a(), e.logger()));
+			case Nothing<Result<S, U, E, A>> p1 -> $do(
+			$(	parser.parser().apply(e.updateLogger(logger()))																		, result1 ->
+			$(	done(replay(e.context().memorize(key, e.offset(), e.user(), result1), e.logger()))						))
+			);
+		}, c -> c.context() == null ? parser.fast().run(c) : switch (c.context().<S, U, E, A>recall(key, c.offset(), c.user())) {
+			case Just<Result<S, U, E, A>> p1 -> c.updateResult(replay(p1.a(), c.logger()));
+			case Nothing<Result<S, U, E, A>> p1 -> {
+				int offset = c.offset();
+				U user = c.user();
+				Logger<E> logger = c.logger();
+				c.updateLogger(logger());
+				Result<S, U, E, A> result = parser.fast().run(c)
+					? success(c.environment(), c.consumed(), c.<A>result())
+					: fail(c.environment(), c.consumed(), c.halt());
+				yield c.updateResult(replay(c.context().memorize(key, offset, user, result), logger));
+			}
+		});
+	}
+	private static <S, U, E, T> Environment<T, U, E> forget(Environment<S, U, E> e, Environment<T, U, E> environment) {
+		Context.forget(e.context());
+		Context.forget(environment.context());
+		return environment;
+	}
+	static <S, U, E, A> Result<S, U, E, A> replay(Result<S, U, E, A> result, Logger<E> logger) {
+		return switch (result) {
+			case Success<S, U, E, A> p1 -> success(p1.environment().mapLogger(logger::concat), p1.consumed(), p1.result());
+			case Fail<S, U, E, A> p1 -> fail(p1.environment().mapLogger(logger::concat), p1.consumed(), p1.halt());
+		};
 	}
 
-	public static <S, U, E, A> Result<S, U, E, A> runParser(Parser<S, U, E, A> parser, Environment<S, U, E> environment) { return parser.parser().apply(environment).run(); }
+	public static <S, U, E, A> Result<S, U, E, A> runParser(Parser<S, U, E, A> parser, Environment<S, U, E> environment) {
+		return Events.PARSE.isEnabled() ? Events.parse("runParser", environment, () -> parser.parser().apply(environment).run()) : parser.parser().apply(environment).run();
+	}
 	public static <S, U, E, A> Result<S, U, E, A> runParser(Parser<S, U, E, A> parser, S stream, U user, Location location, Logger<E> logger) { return runParser(parser, environment(stream, user, location, logger)); }
 	public static <S, U, E, A> Result<S, U, E, A> runParser(Parser<S, U, E, A> parser, S stream, U user, Location location) { return runParser(parser, environment(stream, user, location, logger())); }
 	public static <S, U, E, A> Result<S, U, E, A> runParser(Parser<S, U, E, A> parser, S stream, U user) { return runParser(parser, environment(stream, user, location(), logger())); }
@@ -362,6 +857,19 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 	public static <S, U, E, A> Environment<S, U, E> execParser(Parser<S, U, E, A> parser, S stream, U user, Location location) { return execParser(parser, environment(stream, user, location, logger())); }
 	public static <S, U, E, A> Environment<S, U, E> execParser(Parser<S, U, E, A> parser, S stream, U user) { return execParser(parser, environment(stream, user, location(), logger())); }
 	public static <S, E, A> Environment<S, Unit, E> execParser(Parser<S, Unit, E, A> parser, S stream) { return execParser(parser, environment(stream, unit(), location(), logger())); }
+	public static <S, U, E, A> Result<S, U, E, A> runFast(Parser<S, U, E, A> parser, Cursor<S, U, E> cursor) {
+		return Events.PARSE.isEnabled() ? Events.parse("runFast", cursor.environment(), () -> fast(parser, cursor)) : fast(parser, cursor);
+	}
+	private static <S, U, E, A> Result<S, U, E, A> fast(Parser<S, U, E, A> parser, Cursor<S, U, E> cursor) {
+		return parser.fast().run(cursor)
+			? success(cursor.environment(), cursor.consumed(), cursor.result())
+			: fail(cursor.environment(), cursor.consumed(), cursor.halt());
+	}
+	public static <S, U, E, A> Result<S, U, E, A> runFast(Parser<S, U, E, A> parser, Environment<S, U, E> environment) { return runFast(parser, cursor(environment)); }
+	public static <S, U, E, A> Result<S, U, E, A> runFast(Parser<S, U, E, A> parser, S stream, U user, Location location, Logger<E> logger) { return runFast(parser, environment(stream, user, location, logger)); }
+	public static <S, U, E, A> Result<S, U, E, A> runFast(Parser<S, U, E, A> parser, S stream, U user, Location location) { return runFast(parser, environment(stream, user, location, logger())); }
+	public static <S, U, E, A> Result<S, U, E, A> runFast(Parser<S, U, E, A> parser, S stream, U user) { return runFast(parser, environment(stream, user, location(), logger())); }
+	public static <S, E, A> Result<S, Unit, E, A> runFast(Parser<S, Unit, E, A> parser, S stream) { return runFast(parser, environment(stream, unit(), location(), logger())); }
 
 	public <B> Parser<S, U, E, B> map(Function<A, B> f) {
 		return parser(e -> $do(
@@ -370,8 +878,9 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 				case Success<S, U, E, A> p1 -> done(success(p1.environment(), p1.consumed(), f.apply(p1.result())));
 				case Fail<S, U, E, A> p1 -> done(fail(p1.environment(), p1.consumed(), p1.halt()));
 			}																										))
-		));
+		), c -> fast().run(c) && c.success(c.consumed(), f.apply(c.result())), new Mapping<>(this, f));
 	}
+	public Parser<S, U, E, A> compile() { return parser(parser(), Compiler.compile(this), grammar()); }
 	public <B> Parser<S, U, E, B> applyMap(Parser<S, U, E, Function<A, B>> fab) { return fab.flatMap(f -> map(f)); }
 	public <B> Parser<S, U, E, B> flatMap(Function<A, Parser<S, U, E, B>> f) {
 		return parser(e -> $do(
@@ -386,24 +895,43 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 				));
 				case Fail<S, U, E, A> p1 -> done(fail(p1.environment(), p1.consumed(), p1.halt()));
 			}																																	))
-		));
+		), c -> {
+			if (!fast().run(c)) return false;
+			boolean consumed = c.consumed();
+			if (f.apply(c.result()).fast().run(c)) return c.success(consumed || c.consumed(), c.result());
+			return c.fail(consumed || c.consumed(), c.halt());
+		});
 	}
 	public Parser<S, U, E, A> plus(Parser<S, U, E, A> fa) {
-		return parser(e -> $do(
-		$(	parser().apply(e)																																												, result1 ->
-		$(	switch (result1) {
-				case Success<S, U, E, A> p1 -> done(success(p1.environment(), p1.consumed(), p1.result()));
-				case Fail<S, U, E, A> p1 -> p1.consumed() || p1.halt()
-					? done(fail(p1.environment(), p1.consumed(), p1.halt()))
-					: more(() -> $do(
-					$(	fa.parser().apply(e)																																					, result2 ->
-					$(	switch (result2) {
-							case Success<S, U, E, A> p2 -> done(success(p2.environment(), p2.consumed(), p2.result()));
-							case Fail<S, U, E, A> p2 -> done(fail(p2.consumed() ? p2.environment() : p2.environment().mapLogger(p1.environment().logger()::concat), p2.consumed(), p2.halt()));
-						}																																										))
-					));
-			}																																																))
-		));
+		return parser(e -> {
+			Snapshot<S, U, E> snapshot = Snapshot.snapshot(e);
+			return $do(
+			$(	parser().apply(e)																																											, result1 -> {
+				Environment<S, U, E> e1 = snapshot.release();
+				return switch (result1) {
+					case Success<S, U, E, A> p1 -> done(success(p1.environment(), p1.consumed(), p1.result()));
+					case Fail<S, U, E, A> p1 -> p1.consumed() || p1.halt() || e1 == null
+						? done(fail(p1.environment(), p1.consumed() || e1 == null, p1.halt()))
+						: more(() -> $do(
+						$(	fa.parser().apply(e1)																																				, result2 ->
+						$(	switch (result2) {
+								case Success<S, U, E, A> p2 -> done(success(p2.environment(), p2.consumed(), p2.result()));
+								case Fail<S, U, E, A> p2 -> done(fail(p2.consumed() ? p2.environment() : p2.environment().mapLogger(p1.environment().logger()::concat), p2.consumed(), p2.halt()));
+							}																																									))
+						));
+				};
+			})
+			);
+		}, c -> {
+			Mark<S, U, E> mark = c.mark();
+			if (fast().run(c)) return true;
+			if (c.consumed() || c.halt()) return false;
+			Logger<E> logger = c.logger();
+			c.reset(mark);
+			if (fa.fast().run(c)) return true;
+			if (!c.consumed()) c.updateLogger(logger.concat(c.logger()));
+			return false;
+		});
 	}
 
 	public static <S, U, E, A> Parser<S, U, E, A> pure(A a) { return simple(a); }
@@ -412,9 +940,60 @@ public record Parser<S, U, E, A>(Function<Environment<S, U, E>, Trampoline<Resul
 	public static <S, U, E, A, B> Parser<S, U, E, B> replace(Parser<S, U, E, A> fa, B b) { return fa.map(a -> b); }
 	public static <S, U, E, A> Parser<S, U, E, Unit> discard(Parser<S, U, E, A> fa) { return fa.map(a -> unit()); }
 
+	private static <S, U, E, A> Parser<S, U, E, A> dispatch(Choice<S, U, E, A> choice) {
+		Parser<S, U, E, A> p = Arrays.stream(choice.parsers()).reduce(empty(), Parser::plus);
+		if (choice.table() == null) return parser(p.parser(), p.fast(), choice);
+		@SuppressWarnings("unchecked") Fast<S, U, E, A>[] fasts = (Fast<S, U, E, A>[]) Arrays.stream(choice.parsers()).map(Parser::fast).toArray(Fast<?, ?, ?, ?>[]::new);
+		return parser(e -> {
+			int i = Choice.index(e.stream());
+			if (i < 0 || choice.table()[i] == null) return p.parser().apply(e);
+			@SuppressWarnings("unchecked") Environment<S, U, E>[] failures = (Environment<S, U, E>[]) new Environment<?, ?, ?>[choice.table()[i].length];
+			return dispatch(choice.parsers(), choice.table()[i], failures, 0, e);
+		}, new Compiler.ChoiceFast<>(fasts, choice.table()), choice);
+	}
+	private static <S, U, E, A> Trampoline<Result<S, U, E, A>> dispatch(Parser<S, U, E, A>[] parsers, int[] candidates, Environment<S, U, E>[] failures, int k, Environment<S, U, E> e) {
+		if (k == candidates.length) return merge(parsers, candidates, failures, parsers.length, false, 0, e, e);
+		Snapshot<S, U, E> snapshot = Snapshot.snapshot(e);
+		return $do(
+		$(	parsers[candidates[k]].parser().apply(e)																								, result -> {
+			Environment<S, U, E> e1 = snapshot.release();
+			return switch (result) {
+				case Success<S, U, E, A> p1 -> done(result);
+				case Fail<S, U, E, A> p1 -> {
+					if (p1.consumed() || e1 == null) yield done(fail(p1.environment(), true, p1.halt()));
+					failures[k] = p1.environment();
+					yield p1.halt()
+						? merge(parsers, candidates, failures, candidates[k] + 1, true, 0, e1, e1)
+						: more(() -> dispatch(parsers, candidates, failures, k + 1, e1));
+				}
+			};
+		})
+		);
+	}
+	private static <S, U, E, A> Trampoline<Result<S, U, E, A>> merge(Parser<S, U, E, A>[] parsers, int[] candidates, Environment<S, U, E>[] failures, int limit, boolean halt, int j, Environment<S, U, E> e, Environment<S, U, E> merged) {
+		for (int k; j < limit && (k = Arrays.binarySearch(candidates, j)) >= 0; j++) merged = failures[k].mapLogger(merged.logger()::concat);
+		if (j == limit) return done(fail(merged, false, halt));
+		int next = j + 1;
+		Environment<S, U, E> previous = merged;
+		Snapshot<S, U, E> snapshot = Snapshot.snapshot(e);
+		return $do(
+		$(	parsers[j].parser().apply(e)																											, result -> {
+			Environment<S, U, E> e1 = snapshot.release();
+			return switch (result) {
+				case Success<S, U, E, A> p1 -> done(result);
+				case Fail<S, U, E, A> p1 -> p1.consumed()
+					? done(fail(p1.environment(), true, p1.halt()))
+					: p1.halt() || e1 == null
+					? done(fail(p1.environment().mapLogger(previous.logger()::concat), e1 == null, p1.halt()))
+					: more(() -> merge(parsers, candidates, failures, limit, halt, next, e1, p1.environment().mapLogger(previous.logger()::concat)));
+			};
+		})
+		);
+	}
+
 	public interface Notation {
 		static <S, U, E, A, B> Parser<S, U, E, B> $(Parser<S, U, E, A> fa, Function<A, Parser<S, U, E, B>> f) { return fa.flatMap(f); }
 		static <S, U, E, A, B> Parser<S, U, E, B> $(Parser<S, U, E, A> fa, Supplier<Parser<S, U, E, B>> fb) { return fa.flatMap(a -> fb.get()); }
-		@SafeVarargs static <S, U, E, A> Parser<S, U, E, A> $sum(Parser<S, U, E, A>... fs) { return Arrays.stream(fs).reduce(empty(), Parser::plus); }
+		@SafeVarargs static <S, U, E, A> Parser<S, U, E, A> $sum(Parser<S, U, E, A>... fs) { return dispatch(new Choice<>(fs)); }
 	}
 }
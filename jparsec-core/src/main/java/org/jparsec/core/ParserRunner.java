@@ -0,0 +1,64 @@
+package org.jparsec.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.jparsec.core.Parser.Context;
+import org.jparsec.core.Parser.Cursor;
+import org.jparsec.core.Parser.Environment;
+import static org.jparsec.core.Parser.Environment.*;
+import org.jparsec.core.Parser.Location;
+import static org.jparsec.core.Parser.Location.*;
+import static org.jparsec.core.Parser.Logger.*;
+import org.jparsec.core.Parser.Result;
+
+public final class ParserRunner<S, U, E, A> {
+	private final Parser<S, U, E, A> parser;
+	private final Executor executor;
+	private final ThreadLocal<Cursor<S, U, E>> cursors = new ThreadLocal<>();
+
+	private ParserRunner(Parser<S, U, E, A> parser, Executor executor) {
+		this.parser = parser.compile();
+		this.executor = executor;
+	}
+
+	public static <S, U, E, A> ParserRunner<S, U, E, A> runner(Parser<S, U, E, A> parser) { return runner(parser, ForkJoinPool.commonPool()); }
+	public static <S, U, E, A> ParserRunner<S, U, E, A> runner(Parser<S, U, E, A> parser, Executor executor) { return new ParserRunner<>(parser, executor); }
+
+	public Parser<S, U, E, A> parser() { return parser; }
+	public Executor executor() { return executor; }
+
+	public Result<S, U, E, A> run(Environment<S, U, E> environment) {
+		environment = environment(environment.stream(), environment.user(), environment.location(), environment.logger(), copy(environment.context()));
+		Cursor<S, U, E> cursor = cursors.get();
+		if (cursor == null) cursor = Cursor.cursor(environment);
+		else { cursors.set(null); cursor.reset(environment); }
+		try {
+			return Parser.runFast(parser, cursor);
+		} finally {
+			cursors.set(cursor.clear());
+		}
+	}
+	public Result<S, U, E, A> run(S stream, U user, Location location) { return run(environment(stream, user, location, logger())); }
+	public Result<S, U, E, A> run(S stream, U user) { return run(stream, user, location()); }
+
+	public CompletableFuture<Result<S, U, E, A>> submit(S stream, U user) { return CompletableFuture.supplyAsync(() -> run(stream, user), executor); }
+	public java.util.List<Result<S, U, E, A>> runAll(Collection<? extends S> streams, U user) {
+		java.util.List<CompletableFuture<Result<S, U, E, A>>> futures = new ArrayList<>(streams.size());
+		for (S stream : streams) futures.add(submit(stream, user));
+		java.util.List<Result<S, U, E, A>> results = new ArrayList<>(futures.size());
+		for (CompletableFuture<Result<S, U, E, A>> future : futures) results.add(future.join());
+		return results;
+	}
+
+	private static Context copy(Context context) {
+		if (context == null) return Context.context();
+		Context copy = Context.context(context.memoWindow(), context.cutting());
+		copy.incremental = context.incremental;
+		copy.profile = context.profile;
+		return copy;
+	}
+}
@@ -0,0 +1,80 @@
+package org.jparsec.core;
+
+final class Piece {
+	static final int LEAF = 512;
+
+	final String string;
+	final int from;
+	final Piece left;
+	final Piece right;
+	final int length;
+	final int depth;
+
+	private Piece(String string, int from, int length) {
+		this.string = string;
+		this.from = from;
+		this.left = null;
+		this.right = null;
+		this.length = length;
+		this.depth = 0;
+	}
+	private Piece(Piece left, Piece right) {
+		this.string = null;
+		this.from = 0;
+		this.left = left;
+		this.right = right;
+		this.length = left.length + right.length;
+		this.depth = Math.max(left.depth, right.depth) + 1;
+	}
+
+	static Piece leaf(String string, int from, int to) { return from >= to ? null : new Piece(string, from, to - from); }
+	static Piece leaf(String string) { return leaf(string, 0, string.length()); }
+
+	boolean isLeaf() { return left == null; }
+	String text() { return string.substring(from, from + length); }
+
+	char charAt(int i) {
+		Piece p = this;
+		while (!p.isLeaf()) if (i < p.left.length) p = p.left; else { i -= p.left.length; p = p.right; }
+		return p.string.charAt(p.from + i);
+	}
+	Piece leafAt(int i) {
+		Piece p = this;
+		while (!p.isLeaf()) if (i < p.left.length) p = p.left; else { i -= p.left.length; p = p.right; }
+		return p;
+	}
+	int leafStart(int i) {
+		Piece p = this;
+		int start = 0;
+		while (!p.isLeaf()) if (i < p.left.length) p = p.left; else { i -= p.left.length; start += p.left.length; p = p.right; }
+		return start;
+	}
+
+	Piece slice(int start, int end) {
+		start = Math.max(start, 0);
+		end = Math.min(end, length);
+		if (start >= end) return null;
+		if (start == 0 && end == length) return this;
+		if (isLeaf()) return leaf(string, from + start, from + end);
+		int n = left.length;
+		return join(start < n ? left.slice(start, end) : null, end > n ? right.slice(start - n, end - n) : null);
+	}
+
+	static Piece join(Piece a, Piece b) {
+		if (a == null) return b;
+		if (b == null) return a;
+		if (a.isLeaf() && b.isLeaf() && a.length + b.length <= LEAF) return leaf(a.text() + b.text());
+		if (a.depth > b.depth + 1) return balance(a.left, join(a.right, b));
+		if (b.depth > a.depth + 1) return balance(join(a, b.left), b.right);
+		return new Piece(a, b);
+	}
+	private static Piece balance(Piece l, Piece r) {
+		if (l.depth > r.depth + 1) return l.left.depth >= l.right.depth
+			? new Piece(l.left, new Piece(l.right, r))
+			: new Piece(new Piece(l.left, l.right.left), new Piece(l.right.right, r));
+		if (r.depth > l.depth + 1) return r.right.depth >= r.left.depth
+			? new Piece(new Piece(l, r.left), r.right)
+			: new Piece(new Piece(l, r.left.left), new Piece(r.left.right, r.right));
+		return new Piece(l, r);
+	}
+}
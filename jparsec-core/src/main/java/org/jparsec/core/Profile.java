@@ -0,0 +1,159 @@
+package org.jparsec.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Parser.Context;
+import org.jparsec.core.Parser.Environment;
+import static org.jparsec.core.Parser.Environment.*;
+import static org.jparsec.core.Parser.Location.*;
+import static org.jparsec.core.Parser.Logger.*;
+import org.jparsec.core.Parser.Result;
+import static org.jparsec.core.Parser.Result.*;
+
+import static org.monadium.core.Notation.*;
+import static org.monadium.core.control.Trampoline.*;
+import static org.monadium.core.control.Trampoline.Notation.*;
+
+public final class Profile {
+	public record Stats(String name, long invocations, long successes, long failures, long backtracks, long consumed, long nanos) {}
+
+	private static final class Counter {
+		long invocations;
+		long successes;
+		long failures;
+		long backtracks;
+		long consumed;
+		long nanos;
+		int depth;
+	}
+	private static final class Frame {
+		final String path;
+		final Counter counter;
+		final int offset;
+		final long start;
+		long children;
+
+		Frame(String path, Counter counter, int offset, long start) { this.path = path; this.counter = counter; this.offset = offset; this.start = start; }
+	}
+
+	private final Map<String, Counter> counters = new LinkedHashMap<>();
+	private final Map<String, Long> folded = new LinkedHashMap<>();
+	private final Deque<Frame> frames = new ArrayDeque<>();
+
+	private Profile() {}
+
+	public static Profile profile() { return new Profile(); }
+
+	public static <S, U, E, A> Parser<S, U, E, A> profiled(String name, Parser<S, U, E, A> parser) {
+		return parser(e -> {
+			Profile profile = e.context() == null ? null : e.context().profile;
+			if (profile == null && Events.NAMED.isEnabled()) {
+				Events.NamedParseEvent event = Events.named();
+				return $do(
+				$(	parser.parser().apply(e)																			, result1 -> {
+					Events.named(event, name, e.offset(), result1.isSuccess(), result1.getConsumed(), result1.getEnvironment().offset());
+					return done(result1);
+				})
+				);
+			}
+			if (profile == null) return parser.parser().apply(e);
+			profile.enter(name, e.offset());
+			return $do(
+			$(	parser.parser().apply(e)																				, result1 -> {
+				profile.exit(result1.isSuccess(), result1.getConsumed(), result1.getEnvironment().offset());
+				return done(result1);
+			})
+			);
+		}, c -> {
+			Profile profile = c.context() == null ? null : c.context().profile;
+			if (profile == null && Events.NAMED.isEnabled()) {
+				Events.NamedParseEvent event = Events.named();
+				int offset = c.offset();
+				boolean success = parser.fast().run(c);
+				Events.named(event, name, offset, success, c.consumed(), c.offset());
+				return success;
+			}
+			if (profile == null) return parser.fast().run(c);
+			profile.enter(name, c.offset());
+			boolean success = parser.fast().run(c);
+			profile.exit(success, c.consumed(), c.offset());
+			return success;
+		});
+	}
+
+	public <S, U, E, A> Result<S, U, E, A> runParser(Parser<S, U, E, A> parser, Environment<S, U, E> environment) {
+		environment = contextual(environment);
+		environment.context().profile = this;
+		try {
+			return Parser.runParser(parser, environment);
+		} finally {
+			environment.context().profile = null;
+			frames.clear();
+		}
+	}
+	public <S, U, E, A> Result<S, U, E, A> runParser(Parser<S, U, E, A> parser, S stream, U user) { return runParser(parser, environment(stream, user, location(), logger())); }
+	public <S, U, E, A> Result<S, U, E, A> runFast(Parser<S, U, E, A> parser, Environment<S, U, E> environment) {
+		environment = contextual(environment);
+		environment.context().profile = this;
+		try {
+			return Parser.runFast(parser, environment);
+		} finally {
+			environment.context().profile = null;
+			frames.clear();
+		}
+	}
+	public <S, U, E, A> Result<S, U, E, A> runFast(Parser<S, U, E, A> parser, S stream, U user) { return runFast(parser, environment(stream, user, location(), logger())); }
+	private static <S, U, E> Environment<S, U, E> contextual(Environment<S, U, E> e) { return e.context() != null ? e : environment(e.stream(), e.user(), e.offset(), e.lines(), e.logger(), Context.context()); }
+
+	public java.util.List<Stats> stats() {
+		return counters.entrySet().stream()
+			.map(entry -> new Stats(entry.getKey(), entry.getValue().invocations, entry.getValue().successes, entry.getValue().failures, entry.getValue().backtracks, entry.getValue().consumed, entry.getValue().nanos))
+			.sorted(Comparator.comparingLong(Stats::nanos).reversed())
+			.toList();
+	}
+	public String report() {
+		int width = Math.max(4, counters.keySet().stream().mapToInt(String::length).max().orElse(0));
+		StringBuilder builder = new StringBuilder(String.format("%-" + width + "s %12s %12s %12s %12s %12s %12s%n", "name", "calls", "successes", "failures", "backtracks", "consumed", "time (ms)"));
+		for (Stats stats : stats()) builder.append(String.format("%-" + width + "s %12d %12d %12d %12d %12d %12.3f%n", stats.name(), stats.invocations(), stats.successes(), stats.failures(), stats.backtracks(), stats.consumed(), stats.nanos() / 1e6));
+		return builder.toString();
+	}
+	public String folded() {
+		StringBuilder builder = new StringBuilder();
+		folded.forEach((path, nanos) -> builder.append(path).append(' ').append(nanos).append('\n'));
+		return builder.toString();
+	}
+	public void writeFolded(Path path) {
+		try {
+			Files.writeString(path, folded());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void enter(String name, int offset) {
+		Counter counter = counters.computeIfAbsent(name, k -> new Counter());
+		counter.invocations++;
+		counter.depth++;
+		frames.push(new Frame(frames.isEmpty() ? name : frames.peek().path + ";" + name, counter, offset, System.nanoTime()));
+	}
+	private void exit(boolean success, boolean consumed, int offset) {
+		Frame frame = frames.pop();
+		long nanos = System.nanoTime() - frame.start;
+		Counter counter = frame.counter;
+		if (success) { counter.successes++; counter.consumed += offset - frame.offset; }
+		else { counter.failures++; if (consumed) counter.backtracks++; }
+		if (--counter.depth == 0) counter.nanos += nanos;
+		folded.merge(frame.path, nanos - frame.children, Long::sum);
+		if (!frames.isEmpty()) frames.peek().children += nanos;
+	}
+}
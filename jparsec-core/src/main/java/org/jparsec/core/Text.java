@@ -1,7 +1,24 @@
 package org.jparsec.core;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import static java.nio.charset.StandardCharsets.*;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
 import java.util.function.Predicate;
 
+import org.jparsec.core.CharPredicate;
+import static org.jparsec.core.CharPredicate.*;
+
 import org.monadium.core.data.Bottom;
 import static org.monadium.core.data.Bottom.*;
 import org.monadium.core.data.Maybe;
@@ -29,59 +46,327 @@ public sealed interface Text {
 		@Override public Text take(int i) { return emptyText(); }
 		@Override public Text drop(int i) { return emptyText(); }
 		@Override public Tuple<Text, Text> splitAt(int i) { return tuple(emptyText(), emptyText()); }
-		@Override public Text takeWhile(Predicate<Character> p) { return emptyText(); }
-		@Override public Text dropWhile(Predicate<Character> p) { return emptyText(); }
-		@Override public Tuple<Text, Text> span(Predicate<Character> p) { return tuple(emptyText(), emptyText()); }
+		@Override public Text takeWhileChar(CharPredicate p) { return emptyText(); }
+		@Override public Text dropWhileChar(CharPredicate p) { return emptyText(); }
+		@Override public Tuple<Text, Text> spanChar(CharPredicate p) { return tuple(emptyText(), emptyText()); }
 
 		@Override public boolean isPrefixOf(Text t) { return true; }
 		@Override public boolean isSuffixOf(Text t) { return true; }
 
 		@Override public Maybe<Character> index(int i) { return nothing(); }
-		@Override public int count(Predicate<Character> p) { return 0; }
+		@Override public int countChar(CharPredicate p) { return 0; }
 
 		@Override public String toString() { return ""; }
 		@Override public boolean equals(Object x) { return x instanceof Empty; }
 		@Override public int hashCode() { return "".hashCode(); }
 	}
-	record Nonempty(String s, int offset) implements Text {
-		public char head() { return s.charAt(offset); }
-		public Text tail() { return text(s, offset + 1); }
-
-		@Override public boolean isEmpty() { return false; }
-		@Override public boolean isNonempty() { return true; }
-		@Override public char fromHead(char other) { return head(); }
-		@Override public Text fromTail(Text other) { return tail(); }
-		@Override public char coerceHead() throws Undefined { return head(); }
-		@Override public Text coerceTail() throws Undefined { return tail(); }
-
-		@Override public Text concat(Text t) { return text(toString() + t.toString()); }
-		@Override public Maybe<Character> safeHead() { return just(head()); }
-		@Override public Maybe<Text> safeTail() { return just(tail()); }
-		@Override public Maybe<Tuple<Character, Text>> uncons() { return just(tuple(head(), tail())); }
+	sealed interface Nonempty extends Text {
+		char head();
+		Text tail();
+		boolean startsWith(String s, int offset, int length);
+
+		@Override default boolean isEmpty() { return false; }
+		@Override default boolean isNonempty() { return true; }
+		@Override default char fromHead(char other) { return head(); }
+		@Override default Text fromTail(Text other) { return tail(); }
+		@Override default char coerceHead() throws Undefined { return head(); }
+		@Override default Text coerceTail() throws Undefined { return tail(); }
+
+		@Override default Text concat(Text t) { return t.isEmpty() ? this : length(Piece.LEAF + 1) + t.length(Piece.LEAF + 1) <= Piece.LEAF ? text(toString() + t.toString()) : rope(this).concat(t); }
+		@Override default Maybe<Character> safeHead() { return just(head()); }
+		@Override default Maybe<Text> safeTail() { return just(tail()); }
+		@Override default Maybe<Tuple<Character, Text>> uncons() { return just(tuple(head(), tail())); }
+
+		@Override default Tuple<Text, Text> splitAt(int i) { return tuple(take(i), drop(i)); }
+		@Override default Tuple<Text, Text> spanChar(CharPredicate p) { return tuple(takeWhileChar(p), dropWhileChar(p)); }
+	}
+	record Chars(String s, int offset) implements Nonempty {
+		@Override public char head() { return s.charAt(offset); }
+		@Override public Text tail() { return text(s, offset + 1); }
+		@Override public boolean startsWith(String s, int offset, int length) { return length() >= length && this.s.regionMatches(this.offset, s, offset, length); }
+
 		@Override public int length() { return s.length() - offset; }
 
-		@Override public Text take(int i) { return text(s.substring(offset, Math.min(offset + Math.max(i, 0), s.length()))); }
+		@Override public Text take(int i) { int n = Math.min(Math.max(i, 0), length()); return n > Piece.LEAF ? rope(Piece.leaf(s, offset, offset + n)) : text(s.substring(offset, offset + n)); }
 		@Override public Text drop(int i) { return text(s, offset + Math.max(i, 0)); }
-		@Override public Tuple<Text, Text> splitAt(int i) { return tuple(take(i), drop(i)); }
-		@Override public Text takeWhile(Predicate<Character> p) { return text(s.substring(offset, offset + count(p))); }
-		@Override public Text dropWhile(Predicate<Character> p) { return text(s, offset + count(p)); }
-		@Override public Tuple<Text, Text> span(Predicate<Character> p) { return tuple(takeWhile(p), dropWhile(p)); }
+		@Override public Text takeWhileChar(CharPredicate p) { return text(s.substring(offset, offset + countChar(p))); }
+		@Override public Text dropWhileChar(CharPredicate p) { return text(s, offset + countChar(p)); }
 
-		@Override public boolean isPrefixOf(Text t) { return t.toString().regionMatches(0, s, offset, length()); }
-		@Override public boolean isSuffixOf(Text t) { return t.toString().regionMatches(t.length() - length(), s, offset, length()); }
+		@Override public boolean isPrefixOf(Text t) {
+			return switch (t) {
+				case Empty p1 -> false;
+				case Nonempty p1 -> p1.startsWith(s, offset, length());
+			};
+		}
+		@Override public boolean isSuffixOf(Text t) {
+			return switch (t) {
+				case Empty p1 -> false;
+				case Chars p1 -> p1.length() >= length() && p1.s.regionMatches(p1.s.length() - length(), s, offset, length());
+				case Nonempty p1 -> { int n = length(), m = p1.length(); yield m >= n && p1.drop(m - n) instanceof Nonempty p2 && p2.startsWith(s, offset, n); }
+			};
+		}
 
 		@Override public Maybe<Character> index(int i) { return i < 0 || i >= length() ? nothing() : just(s.charAt(offset + i)); }
-		@Override public int count(Predicate<Character> p) { int c; for (c = 0; offset + c < s.length() && p.test(s.charAt(offset + c)); c++); return c; }
+		@Override public int countChar(CharPredicate p) { int c; for (c = 0; offset + c < s.length() && p.test(s.charAt(offset + c)); c++); return c; }
 
 		@Override public String toString() { return s.substring(offset); }
-		@Override public boolean equals(Object x) { return x instanceof Nonempty x0 && x0.length() == length() && x0.s.regionMatches(x0.offset, s, offset, length()); }
+		@Override public boolean equals(Object x) { return x instanceof Nonempty x0 && x0.length(length() + 1) == length() && x0.startsWith(s, offset, length()); }
+		@Override public int hashCode() { int h = 0; for (int i = offset; i < s.length(); i++) h = 31 * h + s.charAt(i); return h; }
+	}
+	record Streamed(Chunk chunk, int index) implements Nonempty {
+		@Override public char head() { return chunk.chars[index]; }
+		@Override public Text tail() { return drop(1); }
+		@Override public boolean startsWith(String s, int offset, int length) {
+			Chunk c = chunk;
+			int i = index;
+			for (int j = 0; j < length; j++, i++) {
+				if (i == c.length) { if ((c = c.next()) == null) return false; i = 0; }
+				if (c.chars[i] != s.charAt(offset + j)) return false;
+			}
+			return true;
+		}
+
+		@Override public int length() { int n = chunk.length - index; for (Chunk c = chunk.next(); c != null; c = c.next()) n += c.length; return n; }
+		@Override public int length(int limit) { int n = chunk.length - index; for (Chunk c = chunk; n < limit && (c = c.next()) != null; ) n += c.length; return Math.min(n, limit); }
+
+		@Override public Text take(int i) {
+			StringBuilder builder = new StringBuilder();
+			for (Chunk c = chunk; c != null && builder.length() < i; c = c.next()) {
+				int start = c == chunk ? index : 0;
+				builder.append(c.chars, start, Math.min(c.length - start, i - builder.length()));
+			}
+			return text(builder.toString());
+		}
+		@Override public Text drop(int i) { return streamed(chunk, index + Math.max(i, 0)); }
+		@Override public Text takeWhileChar(CharPredicate p) { return take(countChar(p)); }
+		@Override public Text dropWhileChar(CharPredicate p) { return drop(countChar(p)); }
+
+		@Override public boolean isPrefixOf(Text t) { return rest(t) != null; }
+		@Override public boolean isSuffixOf(Text t) { int n = length(), m = t.length(); return m >= n && isPrefixOf(t.drop(m - n)); }
+
+		@Override public Maybe<Character> index(int i) {
+			return switch (i < 0 ? emptyText() : drop(i)) {
+				case Empty p1 -> nothing();
+				case Nonempty p1 -> just(p1.head());
+			};
+		}
+		@Override public int countChar(CharPredicate p) {
+			int n = 0;
+			for (Chunk c = chunk; c != null; c = c.next())
+				for (int i = c == chunk ? index : 0; i < c.length; i++, n++)
+					if (!p.test(c.chars[i])) return n;
+			return n;
+		}
+
+		private Text rest(Text t) {
+			for (Chunk c = chunk; c != null; c = c.next()) {
+				int start = c == chunk ? index : 0;
+				if (!(t instanceof Nonempty t0 && t0.startsWith(new String(c.chars, start, c.length - start), 0, c.length - start))) return null;
+				t = t.drop(c.length - start);
+			}
+			return t;
+		}
+
+		@Override public String toString() {
+			StringBuilder builder = new StringBuilder();
+			for (Chunk c = chunk; c != null; c = c.next()) builder.append(c.chars, c == chunk ? index : 0, c == chunk ? c.length - index : c.length);
+			return builder.toString();
+		}
+		@Override public boolean equals(Object x) { return x instanceof Nonempty x0 && rest(x0) instanceof Empty; }
+		@Override public int hashCode() {
+			int h = 0;
+			for (Chunk c = chunk; c != null; c = c.next()) for (int i = c == chunk ? index : 0; i < c.length; i++) h = 31 * h + c.chars[i];
+			return h;
+		}
+	}
+
+	record Mapped(ByteBuffer bytes, int offset) implements Nonempty {
+		@Override public char head() { return (char) (bytes.get(offset) & 0xFF); }
+		@Override public Text tail() { return mapped(bytes, offset + 1); }
+		@Override public boolean startsWith(String s, int offset, int length) {
+			if (length() < length) return false;
+			for (int i = 0; i < length; i++) if ((bytes.get(this.offset + i) & 0xFF) != s.charAt(offset + i)) return false;
+			return true;
+		}
+
+		@Override public int length() { return bytes.limit() - offset; }
+
+		@Override public Text take(int i) { return mapped(bytes.slice(offset, Math.min(Math.max(i, 0), length())), 0); }
+		@Override public Text drop(int i) { return mapped(bytes, offset + Math.max(i, 0)); }
+		@Override public Text takeWhileChar(CharPredicate p) { return take(countChar(p)); }
+		@Override public Text dropWhileChar(CharPredicate p) { return drop(countChar(p)); }
+
+		@Override public boolean isPrefixOf(Text t) { return t.length(length()) == length() && begins(t); }
+		@Override public boolean isSuffixOf(Text t) { int n = length(), m = t.length(); return m >= n && begins(t.drop(m - n)); }
+
+		@Override public Maybe<Character> index(int i) { return i < 0 || i >= length() ? nothing() : just((char) (bytes.get(offset + i) & 0xFF)); }
+		@Override public int countChar(CharPredicate p) { int c; for (c = 0; offset + c < bytes.limit() && p.test((char) (bytes.get(offset + c) & 0xFF)); c++); return c; }
+
+		private boolean begins(Text t) {
+			if (t instanceof Mapped t0) return bytes.slice(offset, length()).mismatch(t0.bytes().slice(t0.offset(), length())) < 0;
+			byte[] b = new byte[Math.min(length(), Chunk.SIZE)];
+			for (int i = offset; i < bytes.limit(); i += b.length) {
+				int n = Math.min(b.length, bytes.limit() - i);
+				bytes.get(i, b, 0, n);
+				if (!(t instanceof Nonempty t0 && t0.startsWith(new String(b, 0, n, ISO_8859_1), 0, n))) return false;
+				t = t.drop(n);
+			}
+			return true;
+		}
+
+		@Override public String toString() { byte[] b = new byte[length()]; bytes.get(offset, b); return new String(b, ISO_8859_1); }
+		@Override public boolean equals(Object x) { return x instanceof Nonempty x0 && x0.length(length() + 1) == length() && begins(x0); }
+		@Override public int hashCode() { int h = 0; for (int i = offset; i < bytes.limit(); i++) h = 31 * h + (bytes.get(i) & 0xFF); return h; }
+	}
+
+	record Rope(Piece piece, int start, int end, Piece leaf, int leafStart) implements Nonempty {
+		@Override public char head() { return leaf.string.charAt(leaf.from + start - leafStart); }
+		@Override public Text tail() { return rope(piece, start + 1, end, leaf, leafStart); }
+		@Override public boolean startsWith(String s, int offset, int length) {
+			if (length() < length) return false;
+			Piece l = leaf;
+			for (int i = start, ls = leafStart, j = 0; j < length; ) {
+				if (i >= ls + l.length) { l = piece.leafAt(i); ls = piece.leafStart(i); }
+				int n = Math.min(length - j, ls + l.length - i);
+				if (!l.string.regionMatches(l.from + i - ls, s, offset + j, n)) return false;
+				i += n;
+				j += n;
+			}
+			return true;
+		}
+
+		@Override public int length() { return end - start; }
+
+		@Override public Text concat(Text t) {
+			return switch (t) {
+				case Empty p1 -> this;
+				case Rope p1 -> rope(Piece.join(piece.slice(start, end), p1.piece().slice(p1.start(), p1.end())));
+				case Nonempty p1 -> rope(Piece.join(piece.slice(start, end), pieceOf(p1)));
+			};
+		}
+
+		@Override public Text take(int i) { return rope(piece, start, start + Math.min(Math.max(i, 0), length()), leaf, leafStart); }
+		@Override public Text drop(int i) { return rope(piece, start + Math.min(Math.max(i, 0), length()), end, leaf, leafStart); }
+		@Override public Tuple<Text, Text> splitAt(int i) { return tuple(take(i), drop(i)); }
+		@Override public Text takeWhileChar(CharPredicate p) { return take(countChar(p)); }
+		@Override public Text dropWhileChar(CharPredicate p) { return drop(countChar(p)); }
+
+		@Override public boolean isPrefixOf(Text t) {
+			if (t.length(length()) < length()) return false;
+			for (int i = start; i < end; ) {
+				Piece l = piece.leafAt(i);
+				int ls = piece.leafStart(i), n = Math.min(end, ls + l.length) - i;
+				if (!(t instanceof Nonempty t0 && t0.startsWith(l.string, l.from + i - ls, n))) return false;
+				t = t.drop(n);
+				i += n;
+			}
+			return true;
+		}
+		@Override public boolean isSuffixOf(Text t) { int n = length(), m = t.length(); return m >= n && isPrefixOf(t.drop(m - n)); }
+
+		@Override public Maybe<Character> index(int i) { return i < 0 || i >= length() ? nothing() : just(piece.charAt(start + i)); }
+		@Override public int countChar(CharPredicate p) {
+			Piece l = leaf;
+			int i = start;
+			for (int ls = leafStart; i < end; i++) {
+				if (i >= ls + l.length) { l = piece.leafAt(i); ls = piece.leafStart(i); }
+				if (!p.test(l.string.charAt(l.from + i - ls))) break;
+			}
+			return i - start;
+		}
+
+		@Override public String toString() {
+			StringBuilder builder = new StringBuilder(length());
+			for (int i = start; i < end; ) {
+				Piece l = piece.leafAt(i);
+				int ls = piece.leafStart(i), n = Math.min(end, ls + l.length) - i;
+				builder.append(l.string, l.from + i - ls, l.from + i - ls + n);
+				i += n;
+			}
+			return builder.toString();
+		}
+		@Override public boolean equals(Object x) { return x instanceof Nonempty x0 && x0.length(length() + 1) == length() && isPrefixOf(x0); }
 		@Override public int hashCode() { return toString().hashCode(); }
 	}
 
+	record Tracked(Nonempty text, int offset, IntConsumer reads) implements Nonempty {
+		@Override public char head() { reads.accept(offset + 1); return text.head(); }
+		@Override public Text tail() { return tracked(text.tail(), offset + 1, reads); }
+		@Override public boolean startsWith(String s, int offset, int length) { reads.accept(this.offset + length); return text.startsWith(s, offset, length); }
+
+		@Override public int length() { return whole().length(); }
+		@Override public int length(int limit) { int n = text.length(limit); reads.accept(offset + n + (n < limit ? 1 : 0)); return n; }
+
+		@Override public Text take(int i) { reads.accept(offset + Math.max(i, 0)); return text.take(i); }
+		@Override public Text drop(int i) { return tracked(text.drop(i), offset + Math.max(i, 0), reads); }
+		@Override public Text takeWhileChar(CharPredicate p) { return take(countChar(p)); }
+		@Override public Text dropWhileChar(CharPredicate p) { return drop(countChar(p)); }
+
+		@Override public boolean isPrefixOf(Text t) { return whole().isPrefixOf(t); }
+		@Override public boolean isSuffixOf(Text t) { return whole().isSuffixOf(t); }
+
+		@Override public Maybe<Character> index(int i) { reads.accept(offset + Math.max(i, 0) + 1); return text.index(i); }
+		@Override public int countChar(CharPredicate p) { int n = text.countChar(p); reads.accept(offset + n + 1); return n; }
+
+		private Text whole() { reads.accept(offset + text.length() + 1); return text; }
+
+		@Override public String toString() { return whole().toString(); }
+		@Override public boolean equals(Object x) { return whole().equals(x); }
+		@Override public int hashCode() { return whole().hashCode(); }
+	}
+
 	static Text emptyText() { return Empty.SINGLETON; }
-	static Text nonemptyText(char head, Text tail) { return new Nonempty(head + tail.toString(), 0); }
+	static Text nonemptyText(char head, Text tail) { return tail.length(Piece.LEAF) < Piece.LEAF ? new Chars(head + tail.toString(), 0) : text(String.valueOf(head)).concat(tail); }
 	static Text text(String s) { return text(s, 0); }
-	static Text text(String s, int offset) { return Math.max(offset, 0) >= s.length() ? Empty.SINGLETON : new Nonempty(s, Math.max(offset, 0)); }
+	static Text text(String s, int offset) { return Math.max(offset, 0) >= s.length() ? Empty.SINGLETON : new Chars(s, Math.max(offset, 0)); }
+	static Text text(Reader reader) { return text(reader, Chunk.SIZE); }
+	static Text text(Reader reader, int chunkSize) {
+		if (chunkSize < 2) throw new IllegalArgumentException("Chunk size must leave room for a surrogate pair");
+		return streamed(Chunk.read(reader, chunkSize), 0);
+	}
+	static Text text(InputStream stream, Charset charset) { return text(new InputStreamReader(stream, charset)); }
+	static Text text(ReadableByteChannel channel, Charset charset) { return text(Channels.newReader(channel, charset)); }
+	static Text mapped(Path path, Charset charset) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) throw new IllegalArgumentException("Cannot map " + path + ": " + channel.size() + " bytes exceed the 2 GB limit of a mapped Text");
+			ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return charset.equals(ISO_8859_1) ? mapped(bytes, 0) : text(Chunk.reader(bytes, charset));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	static Text rope(String s) { return rope(Piece.leaf(s)); }
+	static Text rope(Text t) {
+		return switch (t) {
+			case Empty p1 -> p1;
+			case Rope p1 -> p1;
+			case Nonempty p1 -> rope(pieceOf(p1));
+		};
+	}
+	private static Piece pieceOf(Nonempty t) {
+		return switch (t) {
+			case Chars p1 -> Piece.leaf(p1.s(), p1.offset(), p1.s().length());
+			case Rope p1 -> p1.piece().slice(p1.start(), p1.end());
+			case Nonempty p1 -> Piece.leaf(p1.toString());
+		};
+	}
+	private static Text rope(Piece piece) { return piece == null ? Empty.SINGLETON : rope(piece, 0, piece.length, piece.leafAt(0), 0); }
+	private static Text rope(Piece piece, int start, int end, Piece leaf, int leafStart) {
+		if (start >= end) return Empty.SINGLETON;
+		if (start < leafStart || start >= leafStart + leaf.length) { leaf = piece.leafAt(start); leafStart = piece.leafStart(start); }
+		return new Rope(piece, start, end, leaf, leafStart);
+	}
+	static Text tracked(Text text, int offset, IntConsumer reads) {
+		return switch (text) {
+			case Empty p1 -> { reads.accept(offset + 1); yield p1; }
+			case Nonempty p1 -> new Tracked(p1, offset, reads);
+		};
+	}
+	private static Text mapped(ByteBuffer bytes, int offset) { return offset >= bytes.limit() ? Empty.SINGLETON : new Mapped(bytes, offset); }
+	private static Text streamed(Chunk chunk, int index) {
+		while (chunk != null && index >= chunk.length) { index -= chunk.length; chunk = chunk.next(); }
+		return chunk == null ? Empty.SINGLETON : new Streamed(chunk, index);
+	}
 
 	boolean isEmpty();
 	boolean isNonempty();
@@ -96,14 +381,18 @@ public sealed interface Text {
 	Maybe<Text> safeTail();
 	Maybe<Tuple<Character, Text>> uncons();
 	int length();
+	default int length(int limit) { return Math.min(length(), limit); }
 
 	// Substring
 	Text take(int i);
 	Text drop(int i);
 	Tuple<Text, Text> splitAt(int i);
-	Text takeWhile(Predicate<Character> p);
-	Text dropWhile(Predicate<Character> p);
-	Tuple<Text, Text> span(Predicate<Character> p);
+	Text takeWhileChar(CharPredicate p);
+	Text dropWhileChar(CharPredicate p);
+	Tuple<Text, Text> spanChar(CharPredicate p);
+	default Text takeWhile(Predicate<Character> p) { return takeWhileChar(charPredicate(p)); }
+	default Text dropWhile(Predicate<Character> p) { return dropWhileChar(charPredicate(p)); }
+	default Tuple<Text, Text> span(Predicate<Character> p) { return spanChar(charPredicate(p)); }
 
 	// Predicate
 	boolean isPrefixOf(Text t);
@@ -111,7 +400,8 @@ public sealed interface Text {
 
 	// Indexing
 	Maybe<Character> index(int i);
-	int count(Predicate<Character> p);
+	int countChar(CharPredicate p);
+	default int count(Predicate<Character> p) { return countChar(charPredicate(p)); }
 
 	@Override String toString();
 	@Override boolean equals(Object x);
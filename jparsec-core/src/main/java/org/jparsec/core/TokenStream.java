@@ -0,0 +1,28 @@
+package org.jparsec.core;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.jparsec.core.Parser.Location;
+
+public record TokenStream<T>(Object[] tokens, Location[] locations, int index) {
+	public static <T> TokenStream<T> tokenStream(java.util.List<? extends T> tokens, java.util.List<Location> locations) {
+		if (locations.size() != tokens.size() + 1) throw new IllegalArgumentException("Expected one location per token and one for the end");
+		return new TokenStream<>(tokens.toArray(), locations.toArray(new Location[0]), 0);
+	}
+
+	public boolean isEmpty() { return index >= tokens.length; }
+	public boolean isNonempty() { return index < tokens.length; }
+	public int length() { return tokens.length - index; }
+
+	@SuppressWarnings("unchecked") public T head() { return (T) tokens[index]; }
+	public TokenStream<T> tail() { return drop(1); }
+	@SuppressWarnings("unchecked") public T get(int i) { return (T) tokens[index + i]; }
+	public Location location() { return locations[index]; }
+
+	public TokenStream<T> drop(int i) { return new TokenStream<>(tokens, locations, index + Math.min(Math.max(i, 0), length())); }
+
+	@Override public String toString() { return Arrays.toString(Arrays.copyOfRange(tokens, index, tokens.length)); }
+	@Override public boolean equals(Object x) { return x instanceof TokenStream<?> x0 && Arrays.equals(tokens, index, tokens.length, x0.tokens, x0.index, x0.tokens.length); }
+	@Override public int hashCode() { int h = 1; for (int i = index; i < tokens.length; i++) h = 31 * h + Objects.hashCode(tokens[i]); return h; }
+}
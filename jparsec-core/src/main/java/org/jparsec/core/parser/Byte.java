@@ -0,0 +1,129 @@
+package org.jparsec.core.parser;
+
+import java.nio.ByteOrder;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+import org.jparsec.core.Bytes;
+import static org.jparsec.core.Bytes.*;
+import org.jparsec.core.Parser;
+import org.jparsec.core.Parser.Environment;
+import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Parser.Message;
+import static org.jparsec.core.Parser.Message.*;
+import static org.jparsec.core.Parser.Result.*;
+
+import org.monadium.core.data.Unit;
+import static org.monadium.core.data.Unit.*;
+
+import static org.monadium.core.Notation.*;
+import static org.monadium.core.control.Trampoline.*;
+import static org.monadium.core.control.Trampoline.Notation.*;
+
+public interface Byte {
+	static <U, E> Parser<Bytes, U, E, Unit> eof() {
+		Message<E> message = expected("eof");
+		return parser(e -> e.stream().isEmpty() ? done(success(e, false, unit())) : done(fail(e.log(message), false, false)), c -> {
+			if (c.stream().isEmpty()) return c.success(false, unit());
+			c.log(message);
+			return c.fail(false, false);
+		});
+	}
+	static <U, E> Parser<Bytes, U, E, java.lang.Byte> any() { return satisfyByte(b -> true); }
+	static <U, E> Parser<Bytes, U, E, java.lang.Byte> octet(int b) { return conclude(satisfyByte(b1 -> b1 == (b & 0xFF)), expected(hex(b))); }
+	static <U, E> Parser<Bytes, U, E, java.lang.Byte> satisfyByte(IntPredicate p) {
+		Message<E> message = unexpected("eof");
+		return parser(e -> e.stream().isEmpty()
+			? done(fail(e.log(message), false, false))
+			: p.test(e.stream().head() & 0xFF)
+			? done(success(e.updateStream(e.stream().tail()).advance(1), true, e.stream().head()))
+			: done(fail(e.log(() -> unexpected(hex(e.stream().head()))), false, false))
+		, c -> {
+			Bytes s = c.stream();
+			if (s.isEmpty()) { c.log(message); return c.fail(false, false); }
+			if (!p.test(s.head() & 0xFF)) { c.log(() -> unexpected(hex(s.head()))); return c.fail(false, false); }
+			c.updateStream(s.tail());
+			c.advance(1);
+			return c.success(true, s.head());
+		});
+	}
+	static <U, E> Parser<Bytes, U, E, Bytes> literal(byte... bs) {
+		Bytes t = bytes(bs.clone());
+		return read(bs.length, expected(t.isEmpty() ? "empty" : t.toString()), s -> s.startsWith(bs), s -> s.take(bs.length));
+	}
+	static <U, E> Parser<Bytes, U, E, Bytes> take(int n) { return read(n, expected(n + " bytes"), s -> n >= 0, s -> s.take(n)); }
+	static <U, E> Parser<Bytes, U, E, Bytes> takeWhile(IntPredicate p) {
+		return parser(e -> {
+			int n = e.stream().count(p);
+			return done(success(e.updateStream(e.stream().drop(n)).advance(n), n > 0, e.stream().take(n)));
+		}, c -> {
+			Bytes s = c.stream();
+			int n = s.count(p);
+			c.updateStream(s.drop(n));
+			c.advance(n);
+			return c.success(n > 0, s.take(n));
+		});
+	}
+
+	static <U, E> Parser<Bytes, U, E, Integer> unsignedByte() { return read(1, expected("uint8"), s -> true, s -> s.head() & 0xFF); }
+	static <U, E> Parser<Bytes, U, E, Short> shortBE() { return read(2, expected("int16"), s -> true, s -> (short) s.get(0, 2, ByteOrder.BIG_ENDIAN)); }
+	static <U, E> Parser<Bytes, U, E, Short> shortLE() { return read(2, expected("int16"), s -> true, s -> (short) s.get(0, 2, ByteOrder.LITTLE_ENDIAN)); }
+	static <U, E> Parser<Bytes, U, E, Integer> unsignedShortBE() { return read(2, expected("uint16"), s -> true, s -> (int) s.get(0, 2, ByteOrder.BIG_ENDIAN)); }
+	static <U, E> Parser<Bytes, U, E, Integer> unsignedShortLE() { return read(2, expected("uint16"), s -> true, s -> (int) s.get(0, 2, ByteOrder.LITTLE_ENDIAN)); }
+	static <U, E> Parser<Bytes, U, E, Integer> intBE() { return read(4, expected("int32"), s -> true, s -> (int) s.get(0, 4, ByteOrder.BIG_ENDIAN)); }
+	static <U, E> Parser<Bytes, U, E, Integer> intLE() { return read(4, expected("int32"), s -> true, s -> (int) s.get(0, 4, ByteOrder.LITTLE_ENDIAN)); }
+	static <U, E> Parser<Bytes, U, E, Long> unsignedIntBE() { return read(4, expected("uint32"), s -> true, s -> s.get(0, 4, ByteOrder.BIG_ENDIAN)); }
+	static <U, E> Parser<Bytes, U, E, Long> unsignedIntLE() { return read(4, expected("uint32"), s -> true, s -> s.get(0, 4, ByteOrder.LITTLE_ENDIAN)); }
+	static <U, E> Parser<Bytes, U, E, Long> longBE() { return read(8, expected("int64"), s -> true, s -> s.get(0, 8, ByteOrder.BIG_ENDIAN)); }
+	static <U, E> Parser<Bytes, U, E, Long> longLE() { return read(8, expected("int64"), s -> true, s -> s.get(0, 8, ByteOrder.LITTLE_ENDIAN)); }
+
+	static <U, E, A> Parser<Bytes, U, E, A> isolate(int n, Parser<Bytes, U, E, A> p) {
+		Message<E> message = expected(n + " bytes");
+		Message<E> rest = internal("Unconsumed bytes in isolated field");
+		return parser(e -> n < 0 || e.stream().length() < n ? done(fail(e.log(message), false, false)) : $do(
+		$(	p.parser().apply(forget(e.updateStream(e.stream().take(n))))																	, result1 ->
+		$(	switch (result1) {
+				case Success<Bytes, U, E, A> p1 -> p1.environment().stream().isNonempty()
+					? done(fail(p1.environment().log(rest), p1.consumed(), false))
+					: done(success(forget(p1.environment().updateStream(e.stream().drop(n))), p1.consumed(), p1.result()));
+				case Fail<Bytes, U, E, A> p1 -> done(fail(p1.environment(), p1.consumed(), p1.halt()));
+			}																																))
+		), c -> {
+			Bytes s = c.stream();
+			if (n < 0 || s.length() < n) { c.log(message); return c.fail(false, false); }
+			c.updateStream(s.take(n));
+			if (c.context() != null) c.context().forget();
+			if (!p.fast().run(c)) return false;
+			if (c.stream().isNonempty()) { c.log(rest); return c.fail(c.consumed(), false); }
+			c.updateStream(s.drop(n));
+			if (c.context() != null) c.context().forget();
+			return true;
+		});
+	}
+	static <U, E> Parser<Bytes, U, E, Bytes> lengthPrefixed(Parser<Bytes, U, E, ? extends Number> length) { return length.flatMap(n -> take(n.intValue())); }
+	static <U, E, A> Parser<Bytes, U, E, A> lengthPrefixed(Parser<Bytes, U, E, ? extends Number> length, Parser<Bytes, U, E, A> p) { return length.flatMap(n -> isolate(n.intValue(), p)); }
+
+	private static <U, E, A> Parser<Bytes, U, E, A> read(int n, Message<E> expected, java.util.function.Predicate<Bytes> p, Function<Bytes, A> f) {
+		Message<E> message = unexpected("eof");
+		return parser(e -> e.stream().length() < n || !p.test(e.stream())
+			? done(fail(e.stream().isEmpty() ? e.log(expected, message) : e.log(expected).log(() -> unexpected(hex(e.stream().take(Math.max(n, 1))))), false, false))
+			: done(success(e.updateStream(e.stream().drop(n)).advance(n), n > 0, f.apply(e.stream())))
+		, c -> {
+			Bytes s = c.stream();
+			if (s.length() < n || !p.test(s)) {
+				if (s.isEmpty()) c.log(expected, message);
+				else { c.log(expected); c.log(() -> unexpected(hex(s.take(Math.max(n, 1))))); }
+				return c.fail(false, false);
+			}
+			c.updateStream(s.drop(n));
+			c.advance(n);
+			return c.success(n > 0, f.apply(s));
+		});
+	}
+	private static <U, E> Environment<Bytes, U, E> forget(Environment<Bytes, U, E> e) {
+		if (e.context() != null) e.context().forget();
+		return e;
+	}
+	private static String hex(int b) { return String.format("0x%02x", b & 0xFF); }
+	private static String hex(Bytes s) { return s.length() == 1 ? hex(s.head()) : s.toString(); }
+}
@@ -1,12 +1,20 @@
 package org.jparsec.core.parser;
 
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
+import org.jparsec.core.CharPredicate;
+import static org.jparsec.core.CharPredicate.*;
 import org.jparsec.core.Escaper;
 import static org.jparsec.core.Escaper.*;
 import org.jparsec.core.Parser;
 import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Parser.Grammar.Literal;
+import org.jparsec.core.Parser.Grammar.Satisfy;
+import org.jparsec.core.Parser.Grammar.Strings;
 import org.jparsec.core.Parser.Message;
 import static org.jparsec.core.Parser.Message.*;
 import org.jparsec.core.Parser.Result;
@@ -25,56 +33,120 @@ import static org.monadium.core.data.Unit.*;
 
 public interface Char {
 	static <U, E> Parser<Text, U, E, Unit> eof() {
+		Message<E> message = expected("eof");
 		return parser(e -> switch (e.stream()) {
 			case Empty p1 -> done(success(e, false, unit()));
-			case Nonempty p1 -> done(fail(e.log(expected("eof")), false, false));
+			case Nonempty p1 -> done(fail(e.log(message), false, false));
+		}, c -> switch (c.stream()) {
+			case Empty p1 -> c.success(false, unit());
+			case Nonempty p1 -> { c.log(message); yield c.fail(false, false); }
 		});
 	}
 	static <U, E> Parser<Text, U, E, Character> any() {
+		Message<E> message = unexpected("eof");
 		return parser(e -> switch (e.stream()) {
-			case Empty p1 -> done(fail(e.log(unexpected("eof")), false, false));
-			case Nonempty p1 -> done(success(e.updateStream(p1.tail()).mapLocation(l -> l.advanceCharacter(p1.head())), true, p1.head()));
+			case Empty p1 -> done(fail(e.log(message), false, false));
+			case Nonempty p1 -> done(success(e.updateStream(p1.tail()).advanceCharacter(p1.head()), true, p1.head()));
+		}, c -> switch (c.stream()) {
+			case Empty p1 -> { c.log(message); yield c.fail(false, false); }
+			case Nonempty p1 -> { c.updateStream(p1.tail()); c.advanceCharacter(p1.head()); yield c.success(true, p1.head()); }
 		});
 	}
 	static <U, E> Parser<Text, U, E, Character> character(char c) {
+		Message<E> message = expected(escapeCharacter(c));
 		return parser(e -> switch (e.stream()) {
-			case Empty p1 -> done(fail(e.log(expected(escapeCharacter(c))), false, false));
+			case Empty p1 -> done(fail(e.log(message), false, false));
 			case Nonempty p1 -> p1.head() == c
-				? done(success(e.updateStream(p1.tail()).mapLocation(l -> l.advanceCharacter(p1.head())), true, p1.head()))
-				: done(fail(e.log(expected(escapeCharacter(c))), false, false));
-		});
+				? done(success(e.updateStream(p1.tail()).advanceCharacter(p1.head()), true, p1.head()))
+				: done(fail(e.log(message), false, false));
+		}, c1 -> switch (c1.stream()) {
+			case Empty p1 -> { c1.log(message); yield c1.fail(false, false); }
+			case Nonempty p1 -> {
+				if (p1.head() != c) { c1.log(message); yield c1.fail(false, false); }
+				c1.updateStream(p1.tail());
+				c1.advanceCharacter(c);
+				yield c1.success(true, p1.head());
+			}
+		}, new Satisfy<>(is(c)));
 	}
 	static <U, E> Parser<Text, U, E, String> string(String str) {
-		return parser(e -> text(str).isPrefixOf(e.stream())
-			? done(success(e.mapStream(s -> s.drop(str.length())).mapLocation(l -> l.advanceString(str)), !str.isEmpty(), str))
-			: done(fail(e.log(expected(escapeString(str))), false, false))
-		);
+		Text t = text(str);
+		Message<E> message = expected(escapeString(str));
+		return parser(e -> t.isPrefixOf(e.stream())
+			? done(success(e.mapStream(s -> s.drop(str.length())).advanceString(str), !str.isEmpty(), str))
+			: done(fail(e.log(message), false, false))
+		, c -> {
+			if (!t.isPrefixOf(c.stream())) { c.log(message); return c.fail(false, false); }
+			c.updateStream(c.stream().drop(str.length()));
+			c.advanceString(str);
+			return c.success(!str.isEmpty(), str);
+		}, new Literal<>(str));
+	}
+	static <U, E> Parser<Text, U, E, String> strings(Collection<String> strs) {
+		Map<String, String> table = new LinkedHashMap<>();
+		for (String str : strs) table.put(str, str);
+		return strings(table);
+	}
+	static <U, E, A> Parser<Text, U, E, A> strings(Map<String, A> table) {
+		Trie<A> trie = Trie.trie(table);
+		Message<E> message = expected(table.keySet().stream().sorted().map(Escaper::escapeString).collect(Collectors.joining(", ")));
+		return parser(e -> switch (trie.match(e.stream())) {
+			case null -> done(fail(e.log(message), false, false));
+			case Trie.Match<A> p1 -> done(success(e.updateStream(p1.rest()).advanceString(p1.key()), !p1.key().isEmpty(), p1.value()));
+		}, c -> {
+			Trie.Match<A> match = trie.match(c.stream());
+			if (match == null) { c.log(message); return c.fail(false, false); }
+			c.updateStream(match.rest());
+			c.advanceString(match.key());
+			return c.success(!match.key().isEmpty(), match.value());
+		}, new Strings<>(java.util.List.copyOf(table.keySet())));
 	}
 
-	static <U, E> Parser<Text, U, E, Character> satisfy(Predicate<Character> p) {
+	static <U, E> Parser<Text, U, E, Character> satisfyChar(CharPredicate p) {
+		Message<E> message = unexpected("eof");
 		return parser(e -> switch (e.stream()) {
-			case Empty p1 -> done(fail(e.log(unexpected("eof")), false, false));
+			case Empty p1 -> done(fail(e.log(message), false, false));
 			case Nonempty p1 -> p.test(p1.head())
-				? done(success(e.updateStream(p1.tail()).mapLocation(l -> l.advanceCharacter(p1.head())), true, p1.head()))
-				: done(fail(e.log(unexpected(escapeCharacter(p1.head()))), false, false));
-		});
+				? done(success(e.updateStream(p1.tail()).advanceCharacter(p1.head()), true, p1.head()))
+				: done(fail(e.log(() -> unexpected(escapeCharacter(p1.head()))), false, false));
+		}, c -> switch (c.stream()) {
+			case Empty p1 -> { c.log(message); yield c.fail(false, false); }
+			case Nonempty p1 -> {
+				if (!p.test(p1.head())) { c.log(() -> unexpected(escapeCharacter(p1.head()))); yield c.fail(false, false); }
+				c.updateStream(p1.tail());
+				c.advanceCharacter(p1.head());
+				yield c.success(true, p1.head());
+			}
+		}, new Satisfy<>(p));
 	}
-	static <U, E> Parser<Text, U, E, Character> dissatisfy(Predicate<Character> p) { return satisfy(p.negate()); }
-	static <U, E> Parser<Text, U, E, String> stringSatisfy(Predicate<Character> p) {
-		return parser(e -> switch (e.stream().span(p)) {
-			case Tuple<Text, Text> p1 -> done(success(e.updateStream(p1.b()).mapLocation(l -> l.advanceString(p1.a().toString())), p1.a().isNonempty(), p1.a().toString()));
+	static <U, E> Parser<Text, U, E, Character> satisfy(Predicate<Character> p) { return satisfyChar(charPredicate(p)); }
+	static <U, E> Parser<Text, U, E, Character> dissatisfyChar(CharPredicate p) { return satisfyChar(p.negate()); }
+	static <U, E> Parser<Text, U, E, Character> dissatisfy(Predicate<Character> p) { return dissatisfyChar(charPredicate(p)); }
+	static <U, E> Parser<Text, U, E, String> stringSatisfyChar(CharPredicate p) {
+		return parser(e -> switch (e.stream().spanChar(p)) {
+			case Tuple<Text, Text> p1 -> done(success(e.updateStream(p1.b()).advanceString(p1.a().toString()), p1.a().isNonempty(), p1.a().toString()));
+		}, c -> {
+			int i = c.stream().countChar(p);
+			String s = c.stream().take(i).toString();
+			c.updateStream(c.stream().drop(i));
+			c.advanceString(s);
+			return c.success(i > 0, s);
 		});
 	}
-	static <U, E> Parser<Text, U, E, String> stringDissatisfy(Predicate<Character> p) { return stringSatisfy(p.negate()); }
+	static <U, E> Parser<Text, U, E, String> stringSatisfy(Predicate<Character> p) { return stringSatisfyChar(charPredicate(p)); }
+	static <U, E> Parser<Text, U, E, String> stringDissatisfyChar(CharPredicate p) { return stringSatisfyChar(p.negate()); }
+	static <U, E> Parser<Text, U, E, String> stringDissatisfy(Predicate<Character> p) { return stringDissatisfyChar(charPredicate(p)); }
 
-	static <U, E> Parser<Text, U, E, Character> oneOf(Character... cs) { return satisfy(Arrays.asList(cs)::contains); }
-	static <U, E> Parser<Text, U, E, Character> noneOf(Character... cs) { return dissatisfy(Arrays.asList(cs)::contains); }
+	static <U, E> Parser<Text, U, E, Character> oneOf(Character... cs) { return satisfyChar(anyOf(chars(cs))); }
+	static <U, E> Parser<Text, U, E, Character> noneOf(Character... cs) { return dissatisfyChar(anyOf(chars(cs))); }
+	static <U, E> Parser<Text, U, E, Character> charClass(String spec) { return conclude(satisfyChar(charSet(spec)), expected("[" + spec + "]")); }
+	private static char[] chars(Character... cs) { char[] chars = new char[cs.length]; for (int i = 0; i < cs.length; i++) chars[i] = cs[i]; return chars; }
 
-	static <U, E> Parser<Text, U, E, Character> space() { return conclude(satisfy(Character::isWhitespace), expected("space")); }
+	static <U, E> Parser<Text, U, E, Character> space() { return conclude(satisfyChar(CharPredicate.WHITESPACE), expected("space")); }
 	static <U, E> Parser<Text, U, E, Unit> spaces() { return skipSome(space()); }
 	static <U, E> Parser<Text, U, E, String> newline() { return conclude(choice(string("\r\n"), string("\n")), expected("newline")); }
-	static <U, E> Parser<Text, U, E, Character> upper() { return conclude(satisfy(Character::isUpperCase), expected("upper")); }
-	static <U, E> Parser<Text, U, E, Character> lower() { return conclude(satisfy(Character::isLowerCase), expected("lower")); }
-	static <U, E> Parser<Text, U, E, Character> letter() { return conclude(satisfy(Character::isLetter), expected("letter")); }
-	static <U, E> Parser<Text, U, E, Character> digit() { return conclude(satisfy(Character::isDigit), expected("digit")); }
+	static <U, E> Parser<Text, U, E, Character> upper() { return conclude(satisfyChar(CharPredicate.UPPER), expected("upper")); }
+	static <U, E> Parser<Text, U, E, Character> lower() { return conclude(satisfyChar(CharPredicate.LOWER), expected("lower")); }
+	static <U, E> Parser<Text, U, E, Character> letter() { return conclude(satisfyChar(CharPredicate.LETTER), expected("letter")); }
+	static <U, E> Parser<Text, U, E, Character> digit() { return conclude(satisfyChar(CharPredicate.DIGIT), expected("digit")); }
 }
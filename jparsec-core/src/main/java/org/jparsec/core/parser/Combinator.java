@@ -1,14 +1,32 @@
 package org.jparsec.core.parser;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 import org.jparsec.core.Parser;
 import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Parser.Cursor;
+import org.jparsec.core.Parser.Cursor.Mark;
+import org.jparsec.core.Parser.Environment;
+import org.jparsec.core.Parser.Grammar;
+import static org.jparsec.core.Parser.Grammar.*;
+import org.jparsec.core.Parser.Result;
+import static org.jparsec.core.Parser.Result.*;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
 
 import static org.jparsec.core.Parser.Notation.*;
 
+import org.monadium.core.control.Trampoline;
+import static org.monadium.core.control.Trampoline.*;
 import org.monadium.core.data.Either;
 import static org.monadium.core.data.Either.*;
 import org.monadium.core.data.List;
@@ -17,9 +35,10 @@ import org.monadium.core.data.Unit;
 import static org.monadium.core.data.Unit.*;
 
 import static org.monadium.core.Notation.*;
+import static org.monadium.core.control.Trampoline.Notation.*;
 
 public interface Combinator {
-	@SafeVarargs static <S, U, E> Parser<S, U, E, Unit> sequence(Parser<S, U, E, ?>... ps) { return replace(Arrays.stream(ps).reduce(simple(unit()), (p1, p2) -> p1.flatMap(x -> p2)), unit()); }
+	@SafeVarargs static <S, U, E> Parser<S, U, E, Unit> sequence(Parser<S, U, E, ?>... ps) { return grammar(replace(Arrays.stream(ps).reduce(simple(unit()), (p1, p2) -> p1.flatMap(x -> p2)), unit()), new Sequence<>(ps)); }
 
 	@SafeVarargs static <S, U, E, A> Parser<S, U, E, A> choice(Parser<S, U, E, A>... ps) { return $sum(ps); }
 	static <S, U, E, A> Parser<S, U, E, A> option(Parser<S, U, E, A> p, A a) { return p.plus(simple(a)); }
@@ -32,65 +51,58 @@ public interface Combinator {
 		);
 	}
 	static <S, U, E, A, B> Parser<S, U, E, B> loop(A a, Function<A, Parser<S, U, E, Either<A, B>>> f) {
-		return $do(
+		return parser($do(
 		$(	f.apply(a)												, e ->
 		$(	switch (e) {
 				case Left<A, B> p1 -> recur(() -> loop(p1.a(), f));
 				case Right<A, B> p1 -> simple(p1.b());
 			}														))
-		);
+		).parser(), c -> {
+			boolean consumed = false;
+			for (A a1 = a;;) {
+				if (!f.apply(a1).fast().run(c)) return c.fail(consumed || c.consumed(), c.halt());
+				consumed = consumed || c.consumed();
+				switch (c.<Either<A, B>>result()) {
+					case Left<A, B> p1 -> a1 = p1.a();
+					case Right<A, B> p1 -> { return c.success(consumed, p1.b()); }
+				}
+			}
+		});
 	}
 
 	static <S, U, E, A> Parser<S, U, E, A> between(Parser<S, U, E, ?> begin, Parser<S, U, E, ?> end, Parser<S, U, E, A> p) {
-		return $do(
+		return grammar($do(
 		$(	begin		, o1 ->
 		$(	p			, a ->
 		$(	end			, o2 ->
 	 	$(	simple(a)	))))
-		);
-	}
-
-	static <S, U, E, A> Parser<S, U, E, List<A>> some(Parser<S, U, E, A> p) { return recur(() -> many(p)).plus(simple(nil())); }
-	static <S, U, E, A> Parser<S, U, E, List<A>> many(Parser<S, U, E, A> p) {
-		return $do(
-		$(	p						, a ->
-		$(	recur(() -> some(p))	, as ->
-		$(	simple(cons(a, as))		)))
-		);
-	}
-
-	static <S, U, E, A> Parser<S, U, E, A> iterateSome(A a, Function<A, Parser<S, U, E, A>> f) { return recur(() -> iterateMany(a, f)).plus(simple(a)); }
-	static <S, U, E, A> Parser<S, U, E, A> iterateMany(A a, Function<A, Parser<S, U, E, A>> f) {
-		return $do(
-		$(	f.apply(a)						, a1 ->
-		$(	recur(() -> iterateSome(a1, f))	))
-		);
-	}
-
-	static <S, U, E, A, B> Parser<S, U, E, B> foldSome(BiFunction<B, A, Parser<S, U, E, B>> f, B b, Parser<S, U, E, A> p) { return recur(() -> foldMany(f, b, p)).plus(simple(b)); }
-	static <S, U, E, A, B> Parser<S, U, E, B> foldMany(BiFunction<B, A, Parser<S, U, E, B>> f, B b, Parser<S, U, E, A> p) {
-		return $do(
-		$(	p								, a ->
-		$(	f.apply(b, a)					, b1 ->
-		$(	recur(() -> foldSome(f, b1, p))	)))
-		);
-	}
-
-	static <S, U, E, A> Parser<S, U, E, Unit> skipSome(Parser<S, U, E, A> p) { return recur(() -> skipMany(p).plus(simple(unit()))); }
-	static <S, U, E, A> Parser<S, U, E, Unit> skipMany(Parser<S, U, E, A> p) {
-		return $do(
-		$(	p							, () ->
-		$(	recur(() -> skipSome(p))	))
-		);
+		), new Between<>(begin, end, p));
 	}
 
-	static <S, U, E, A> Parser<S, U, E, List<A>> someSep(Parser<S, U, E, ?> sep, Parser<S, U, E, A> p) { return recur(() -> manySep(sep, p)).plus(simple(nil())); }
-	static <S, U, E, A> Parser<S, U, E, List<A>> manySep(Parser<S, U, E, ?> sep, Parser<S, U, E, A> p) {
-		return $do(
-		$(	p										, a ->
-		$(	recur(() -> some(sep.flatMap(o -> p)))	, as ->
-		$(	simple(cons(a, as))						)))
-		);
+	static <S, U, E, A> Parser<S, U, E, List<A>> some(Parser<S, U, E, A> p) { return collect(false, p, p, Combinator::list); }
+	static <S, U, E, A> Parser<S, U, E, List<A>> many(Parser<S, U, E, A> p) { return collect(true, p, p, Combinator::list); }
+	static <S, U, E, A> Parser<S, U, E, java.util.List<A>> someList(Parser<S, U, E, A> p) { return collect(false, p, p, as -> as); }
+	static <S, U, E, A> Parser<S, U, E, java.util.List<A>> manyList(Parser<S, U, E, A> p) { return collect(true, p, p, as -> as); }
+	static <S, U, E, A> Parser<S, U, E, A[]> someArray(Parser<S, U, E, A> p, IntFunction<A[]> generator) { return collect(false, p, p, as -> as.toArray(generator.apply(as.size()))); }
+	static <S, U, E, A> Parser<S, U, E, A[]> manyArray(Parser<S, U, E, A> p, IntFunction<A[]> generator) { return collect(true, p, p, as -> as.toArray(generator.apply(as.size()))); }
+	static <S, U, E> Parser<S, U, E, String> someString(Parser<S, U, E, Character> p) { return collect(false, p, p, StringBuilder::new, (b, c) -> b.append(c.charValue()), StringBuilder::toString); }
+	static <S, U, E> Parser<S, U, E, String> manyString(Parser<S, U, E, Character> p) { return collect(true, p, p, StringBuilder::new, (b, c) -> b.append(c.charValue()), StringBuilder::toString); }
+
+	static <S, U, E, A> Parser<S, U, E, A> iterateSome(A a, Function<A, Parser<S, U, E, A>> f) { return iterate(false, a, f); }
+	static <S, U, E, A> Parser<S, U, E, A> iterateMany(A a, Function<A, Parser<S, U, E, A>> f) { return iterate(true, a, f); }
+
+	static <S, U, E, A, B> Parser<S, U, E, B> foldSome(BiFunction<B, A, Parser<S, U, E, B>> f, B b, Parser<S, U, E, A> p) { return iterate(false, b, b1 -> p.flatMap(a -> f.apply(b1, a))); }
+	static <S, U, E, A, B> Parser<S, U, E, B> foldMany(BiFunction<B, A, Parser<S, U, E, B>> f, B b, Parser<S, U, E, A> p) { return iterate(true, b, b1 -> p.flatMap(a -> f.apply(b1, a))); }
+
+	static <S, U, E, A> Parser<S, U, E, Unit> skipSome(Parser<S, U, E, A> p) { return collect(false, p, p, Unit::unit, (u, a) -> {}, u -> u); }
+	static <S, U, E, A> Parser<S, U, E, Unit> skipMany(Parser<S, U, E, A> p) { return collect(true, p, p, Unit::unit, (u, a) -> {}, u -> u); }
+
+	static <S, U, E, A> Parser<S, U, E, List<A>> someSep(Parser<S, U, E, ?> sep, Parser<S, U, E, A> p) { return collect(false, p, between(sep, simple(unit()), p), Combinator::list); }
+	static <S, U, E, A> Parser<S, U, E, List<A>> manySep(Parser<S, U, E, ?> sep, Parser<S, U, E, A> p) { return collect(true, p, between(sep, simple(unit()), p), Combinator::list); }
+	static <U, E, A> Parser<Text, U, E, List<A>> parallelManySep(Parser<Text, U, E, ?> sep, Parser<Text, U, E, A> p, ForkJoinPool pool) {
+		Parser<Text, U, E, List<A>> first = manySep(sep, p);
+		Parser<Text, U, E, List<A>> rest = some(between(sep, simple(unit()), p));
+		return parser(e -> done(Parallel.manySep(e, sep, first, rest, pool)), c -> c.updateResult(Parallel.manySep(c.environment(), sep, first, rest, pool)));
 	}
 
 	static <S, U, E, A> Parser<S, U, E, A> iterateSomeSep(Parser<S, U, E, ?> sep, A a, Function<A, Parser<S, U, E, A>> f) { return recur(() -> iterateManySep(sep, a, f)).plus(simple(a)); }
@@ -117,4 +129,65 @@ public interface Combinator {
 		$(	recur(() -> foldSome(f, b1, sep.flatMap(o -> p)))	)))
 		);
 	}
+	private static <S, U, E, A, B> Parser<S, U, E, B> collect(boolean required, Parser<S, U, E, A> first, Parser<S, U, E, A> rest, Function<ArrayList<A>, B> finish) { return collect(required, first, rest, ArrayList<A>::new, ArrayList::add, finish); }
+	private static <S, U, E, A, C, B> Parser<S, U, E, B> collect(boolean required, Parser<S, U, E, A> first, Parser<S, U, E, A> rest, Supplier<C> buffer, BiConsumer<C, A> add, Function<C, B> finish) {
+		return parser(e -> {
+			C as = buffer.get();
+			return repeat(e, false, required, first, () -> rest, a -> add.accept(as, a), () -> finish.apply(as));
+		}, c -> {
+			C as = buffer.get();
+			var state = new Object() { Parser<S, U, E, A> next = first; };
+			BooleanSupplier step = () -> {
+				Parser<S, U, E, A> p = state.next;
+				state.next = rest;
+				if (!p.fast().run(c)) return false;
+				add.accept(as, c.result());
+				return true;
+			};
+			return (required ? step.getAsBoolean() && repeat(c, c.consumed(), step) : repeat(c, false, step)) && c.success(c.consumed(), finish.apply(as));
+		}, new Repeat<>(required, first, rest, buffer, add, finish));
+	}
+	private static <S, U, E, A> Parser<S, U, E, A> iterate(boolean required, A a, Function<A, Parser<S, U, E, A>> f) {
+		return parser(e -> {
+			var state = new Object() { A a1 = a; };
+			return repeat(e, false, required, f.apply(a), () -> f.apply(state.a1), a1 -> state.a1 = a1, () -> state.a1);
+		}, c -> required ? f.apply(a).fast().run(c) && iterate(c, c.consumed(), c.<A>result(), f) : iterate(c, false, a, f));
+	}
+	private static <S, U, E, A, B> Trampoline<Result<S, U, E, B>> repeat(Environment<S, U, E> e, boolean consumed, boolean required, Parser<S, U, E, A> p, Supplier<Parser<S, U, E, A>> next, Consumer<A> step, Supplier<B> b) {
+		return $do(
+		$(	p.parser().apply(e)																	, result ->
+		$(	switch (result) {
+				case Success<S, U, E, A> p1 -> {
+					step.accept(p1.result());
+					yield more(() -> repeat(p1.environment(), consumed || p1.consumed(), false, next.get(), next, step, b));
+				}
+				case Fail<S, U, E, A> p1 -> done(required || p1.consumed() || p1.halt()
+					? fail(p1.environment(), consumed || p1.consumed(), p1.halt())
+					: success(e, consumed, b.get()));
+			}																					))
+		);
+	}
+	private static <S, U, E> boolean repeat(Cursor<S, U, E> c, boolean consumed, BooleanSupplier step) {
+		for (;;) {
+			Mark<S, U, E> mark = c.mark();
+			if (step.getAsBoolean()) { consumed = consumed || c.consumed(); continue; }
+			if (c.consumed() || c.halt()) return c.fail(consumed || c.consumed(), c.halt());
+			c.reset(mark);
+			return c.success(consumed, unit());
+		}
+	}
+	private static <S, U, E, A> boolean iterate(Cursor<S, U, E> c, boolean consumed, A a, Function<A, Parser<S, U, E, A>> f) {
+		var state = new Object() { A a1 = a; };
+		return repeat(c, consumed, () -> {
+			if (!f.apply(state.a1).fast().run(c)) return false;
+			state.a1 = c.result();
+			return true;
+		}) && c.success(c.consumed(), state.a1);
+	}
+	private static <S, U, E, A> Parser<S, U, E, A> grammar(Parser<S, U, E, A> p, Grammar<S, U, E, A> grammar) { return parser(p.parser(), p.fast(), grammar); }
+	private static <A> List<A> list(ArrayList<A> as) {
+		List<A> result = nil();
+		for (int i = as.size() - 1; i >= 0; i--) result = cons(as.get(i), result);
+		return result;
+	}
 }
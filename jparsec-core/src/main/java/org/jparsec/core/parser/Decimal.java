@@ -0,0 +1,103 @@
+package org.jparsec.core.parser;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+final class Decimal {
+	private static final int MIN_EXPONENT = -348;
+	private static final int MAX_EXPONENT = 347;
+	private static final long[] POWERS = powers();
+	private static final double[] DOUBLE_POWERS = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+	private static final float[] FLOAT_POWERS = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+
+	private Decimal() {}
+
+	static long negative(String digits, long limit) {
+		long n = 0;
+		for (int i = 0; i < digits.length(); i++) {
+			int d = digits.charAt(i) - '0';
+			if (n < (limit + d) / 10) return 1;
+			n = n * 10 - d;
+		}
+		return n;
+	}
+
+	static double toDouble(String integer, String fraction) {
+		int digits = significant(integer, fraction);
+		if (digits <= 19) {
+			long m = significand(integer, fraction);
+			int scale = fraction.length();
+			if (m >= 0 && m <= 1L << 53 && scale < DOUBLE_POWERS.length) return (double) m / DOUBLE_POWERS[scale];
+			long bits = eiselLemire(m, -scale, 52, 1023);
+			if (bits >= 0) return Double.longBitsToDouble(bits);
+		}
+		return decimal(integer, fraction).doubleValue();
+	}
+	static float toFloat(String integer, String fraction) {
+		int digits = significant(integer, fraction);
+		if (digits <= 19) {
+			long m = significand(integer, fraction);
+			int scale = fraction.length();
+			if (m >= 0 && m <= 1L << 24 && scale < FLOAT_POWERS.length) return (float) m / FLOAT_POWERS[scale];
+			long bits = eiselLemire(m, -scale, 23, 127);
+			if (bits >= 0) return Float.intBitsToFloat((int) bits);
+		}
+		return decimal(integer, fraction).floatValue();
+	}
+
+	private static int significant(String integer, String fraction) {
+		int i = 0;
+		while (i < integer.length() && integer.charAt(i) == '0') i++;
+		if (i < integer.length()) return integer.length() - i + fraction.length();
+		int j = 0;
+		while (j < fraction.length() && fraction.charAt(j) == '0') j++;
+		return fraction.length() - j;
+	}
+	private static long significand(String integer, String fraction) {
+		long m = 0;
+		for (int i = 0; i < integer.length(); i++) m = m * 10 + integer.charAt(i) - '0';
+		for (int i = 0; i < fraction.length(); i++) m = m * 10 + fraction.charAt(i) - '0';
+		return m;
+	}
+	private static BigDecimal decimal(String integer, String fraction) { return new BigDecimal(new BigInteger(integer + fraction), fraction.length()); }
+
+	private static long eiselLemire(long m, int exponent, int mantissaBits, int bias) {
+		if (m == 0) return 0;
+		if (exponent < MIN_EXPONENT || exponent > MAX_EXPONENT) return -1;
+		long mask = (1L << 61 - mantissaBits) - 1;
+		int clz = Long.numberOfLeadingZeros(m);
+		m <<= clz;
+		long exponent2 = (217706L * exponent >> 16) + 64 + bias - clz;
+		long lowPower = POWERS[2 * (exponent - MIN_EXPONENT)], highPower = POWERS[2 * (exponent - MIN_EXPONENT) + 1];
+		long high = multiplyHigh(m, highPower), low = m * highPower;
+		if ((high & mask) == mask && Long.compareUnsigned(low + m, m) < 0) {
+			long yHigh = multiplyHigh(m, lowPower), yLow = m * lowPower;
+			long mergedHigh = high, mergedLow = low + yHigh;
+			if (Long.compareUnsigned(mergedLow, low) < 0) mergedHigh++;
+			if ((mergedHigh & mask) == mask && mergedLow + 1 == 0 && Long.compareUnsigned(yLow + m, m) < 0) return -1;
+			high = mergedHigh;
+			low = mergedLow;
+		}
+		long msb = high >>> 63;
+		long mantissa = high >>> msb + 61 - mantissaBits;
+		exponent2 -= 1 ^ msb;
+		if (low == 0 && (high & mask) == 0 && (mantissa & 3) == 1) return -1;
+		mantissa += mantissa & 1;
+		mantissa >>>= 1;
+		if (mantissa >>> mantissaBits + 1 > 0) { mantissa >>>= 1; exponent2++; }
+		if (exponent2 <= 0 || exponent2 >= 2 * bias + 1) return -1;
+		return exponent2 << mantissaBits | mantissa & (1L << mantissaBits) - 1;
+	}
+	private static long multiplyHigh(long x, long y) { return Math.multiplyHigh(x, y) + (x >> 63 & y) + (y >> 63 & x); }
+
+	private static long[] powers() {
+		long[] powers = new long[2 * (MAX_EXPONENT - MIN_EXPONENT + 1)];
+		for (int e = MIN_EXPONENT; e <= MAX_EXPONENT; e++) {
+			BigInteger p = BigInteger.TEN.pow(Math.abs(e));
+			BigInteger q = e >= 0 ? p.bitLength() > 128 ? p.shiftRight(p.bitLength() - 128) : p.shiftLeft(128 - p.bitLength()) : BigInteger.ONE.shiftLeft(127 + p.bitLength()).divide(p);
+			powers[2 * (e - MIN_EXPONENT)] = q.longValue();
+			powers[2 * (e - MIN_EXPONENT) + 1] = q.shiftRight(64).longValue();
+		}
+		return powers;
+	}
+}
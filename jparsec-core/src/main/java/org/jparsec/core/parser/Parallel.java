@@ -0,0 +1,136 @@
+package org.jparsec.core.parser;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.jparsec.core.CharPredicate;
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Parser.Context;
+import org.jparsec.core.Parser.Cursor;
+import static org.jparsec.core.Parser.Cursor.*;
+import org.jparsec.core.Parser.Environment;
+import static org.jparsec.core.Parser.Environment.*;
+import org.jparsec.core.Parser.Location;
+import static org.jparsec.core.Parser.Location.*;
+import org.jparsec.core.Parser.Logger;
+import static org.jparsec.core.Parser.Logger.*;
+import org.jparsec.core.Parser.Result;
+import static org.jparsec.core.Parser.Result.*;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+
+import org.monadium.core.data.List;
+import static org.monadium.core.data.List.*;
+
+final class Parallel {
+	static final int MIN_CHUNK = 1 << 16;
+	private static final CharPredicate NOT_NEWLINE = CharPredicate.is('\n').negate();
+
+	private Parallel() {}
+
+	static <U, E, A> Result<Text, U, E, List<A>> manySep(Environment<Text, U, E> e, Parser<Text, U, E, ?> sep, Parser<Text, U, E, List<A>> first, Parser<Text, U, E, List<A>> rest, ForkJoinPool pool) {
+		Text t = e.stream();
+		int chunks = t.length(2 * MIN_CHUNK) < 2 * MIN_CHUNK ? 0 : Math.min(pool.getParallelism() * 4, t.length() / MIN_CHUNK);
+		int[] bounds = chunks < 2 ? new int[0] : bounds(t, sep, e.user(), chunks);
+		if (bounds.length < 3) return run(first, e);
+		Text[] texts = new Text[bounds.length - 1];
+		for (int k = 0; k < texts.length; k++) texts[k] = k == texts.length - 1 ? t.drop(bounds[k]) : t.drop(bounds[k]).take(bounds[k + 1] - bounds[k]);
+		Location[] locations = locations(texts, bounds, e.location(), pool);
+		java.util.List<ForkJoinTask<Result<Text, U, E, List<A>>>> tasks = new ArrayList<>();
+		for (int k = 0; k < texts.length; k++) {
+			Parser<Text, U, E, List<A>> p = k == 0 ? first : rest;
+			Environment<Text, U, E> environment = environment(texts[k], e.user(), locations[k], k == 0 ? e.logger() : Logger.<E>logger(), context(e.context()));
+			tasks.add(pool.submit(() -> run(p, environment)));
+		}
+		ArrayList<A> results = new ArrayList<>();
+		Environment<Text, U, E> previous = e;
+		Logger<E> logger = logger();
+		boolean consumed = false;
+		for (int k = 0; k < tasks.size(); k++) {
+			Result<Text, U, E, List<A>> result = tasks.get(k).join();
+			boolean last = k == tasks.size() - 1;
+			if (!last && !(result instanceof Success<Text, U, E, List<A>> p1 && p1.environment().stream().isEmpty())) {
+				for (int j = k + 1; j < tasks.size(); j++) tasks.get(j).cancel(false);
+				if (e.context() != null) e.context().forget();
+				result = run(k == 0 ? first : rest, k == 0 ? e : environment(t.drop(bounds[k]), previous.user(), previous.location(), logger, e.context()));
+				logger = logger();
+				last = true;
+			}
+			logger = logger.concat(result.getEnvironment().logger());
+			consumed = consumed || result.getConsumed();
+			previous = result.getEnvironment();
+			switch (result) {
+				case Success<Text, U, E, List<A>> p1 -> { for (A a : p1.result()) results.add(a); }
+				case Fail<Text, U, E, List<A>> p1 -> { return fail(environment(p1.environment().stream(), p1.environment().user(), p1.environment().location(), logger, e.context()), consumed, p1.halt()); }
+			}
+			if (last) {
+				List<A> list = nil();
+				for (int i = results.size() - 1; i >= 0; i--) list = cons(results.get(i), list);
+				return success(environment(previous.stream(), previous.user(), previous.location(), logger, e.context()), consumed, list);
+			}
+		}
+		throw new IllegalStateException();
+	}
+
+	private static <U, E> int[] bounds(Text t, Parser<Text, U, E, ?> sep, U user, int chunks) {
+		int length = t.length();
+		ArrayList<Integer> bounds = new ArrayList<>();
+		bounds.add(0);
+		Text r = t;
+		int i = 0;
+		for (int k = 1; k < chunks; k++) {
+			int from = Math.max(length / chunks * k, i + 1);
+			r = r.drop(from - i);
+			i = from;
+			while (r.isNonempty() && match(sep, r, user) == 0) { r = r.drop(1); i++; }
+			if (r.isEmpty()) break;
+			int start = i;
+			while (i - 1 > bounds.get(bounds.size() - 1) && match(sep, t.drop(i - 1), user) > 1) i--;
+			if (i < start) r = t.drop(i);
+			bounds.add(i);
+		}
+		bounds.add(length);
+		return bounds.stream().mapToInt(Integer::intValue).toArray();
+	}
+	private static <U, E> int match(Parser<Text, U, E, ?> sep, Text t, U user) {
+		return run(sep, environment(t, user, location(), Logger.<E>logger())) instanceof Success<Text, U, E, ?> p1 && p1.consumed() ? p1.environment().offset() : 0;
+	}
+	private static Context context(Context context) { return context == null ? null : Context.context(context.memoWindow(), context.cutting()); }
+	private static <U, E, A> Result<Text, U, E, A> run(Parser<Text, U, E, A> parser, Environment<Text, U, E> environment) {
+		Cursor<Text, U, E> cursor = cursor(environment);
+		return parser.fast().run(cursor)
+			? success(cursor.environment(), cursor.consumed(), cursor.result())
+			: fail(cursor.environment(), cursor.consumed(), cursor.halt());
+	}
+	private static Location[] locations(Text[] texts, int[] bounds, Location origin, ForkJoinPool pool) {
+		java.util.List<ForkJoinTask<int[]>> tasks = new ArrayList<>();
+		for (int k = 0; k < texts.length - 1; k++) {
+			Text text = texts[k];
+			tasks.add(pool.submit(() -> {
+				int count = 0, newline = -1, i = 0;
+				for (Text r = text; ; r = r.drop(1), i++) {
+					int n = r.countChar(NOT_NEWLINE);
+					r = r.drop(n);
+					i += n;
+					if (r.isEmpty()) break;
+					count++;
+					newline = i;
+				}
+				return new int[] { count, newline };
+			}));
+		}
+		Location[] locations = new Location[texts.length];
+		locations[0] = origin;
+		for (int k = 1; k < locations.length; k++) {
+			int[] lines = tasks.get(k - 1).join();
+			Location previous = locations[k - 1];
+			int length = bounds[k] - bounds[k - 1];
+			locations[k] = lines[0] == 0
+				? location(previous.tag(), previous.offset() + length, previous.line(), previous.column() + length)
+				: location(previous.tag(), previous.offset() + length, previous.line() + lines[0], length - lines[1]);
+		}
+		return locations;
+	}
+}
@@ -3,6 +3,8 @@ package org.jparsec.core.parser;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
+import org.jparsec.core.CharPredicate;
+import static org.jparsec.core.CharPredicate.*;
 import org.jparsec.core.Parser;
 import static org.jparsec.core.Parser.*;
 import org.jparsec.core.Parser.Message;
@@ -16,6 +18,8 @@ import static org.jparsec.core.parser.Combinator.*;
 
 import static org.jparsec.core.Parser.Notation.*;
 
+import org.monadium.core.data.Maybe;
+import static org.monadium.core.data.Maybe.*;
 import org.monadium.core.data.Tuple;
 import static org.monadium.core.data.Tuple.*;
 
@@ -28,48 +32,32 @@ public interface Read {
 			replace(string("true"), true)
 		), expected("boolean"));
 	}
-	static <U, E> Parser<Text, U, E, Byte> readByte() {
+	static <U, E> Parser<Text, U, E, java.lang.Byte> readByte() {
 		return $do(
-		$(	conclude(integer(), expected("byte"))								, number ->
-		$(	ensure(
-				number.compareTo(BigInteger.valueOf(Byte.MIN_VALUE)) >= 0 &&
-				number.compareTo(BigInteger.valueOf(Byte.MAX_VALUE)) <= 0,
-				error("Literal out of range")
-			)																	, () ->
-		$(	simple(number.byteValueExact())										)))
+		$(	conclude(integer(java.lang.Byte.MIN_VALUE, java.lang.Byte.MAX_VALUE), expected("byte"))			, number ->
+		$(	inRange(number)																, value ->
+		$(	simple(value.byteValue())													)))
 		);
 	}
 	static <U, E> Parser<Text, U, E, Short> readShort() {
 		return $do(
-		$(	conclude(integer(), expected("short"))								, number ->
-		$(	ensure(
-				number.compareTo(BigInteger.valueOf(Short.MIN_VALUE)) >= 0 &&
-				number.compareTo(BigInteger.valueOf(Short.MAX_VALUE)) <= 0,
-				error("Literal out of range")
-			)																	, () ->
-		$(	simple(number.shortValueExact())									)))
+		$(	conclude(integer(Short.MIN_VALUE, Short.MAX_VALUE), expected("short"))		, number ->
+		$(	inRange(number)																, value ->
+		$(	simple(value.shortValue())													)))
 		);
 	}
 	static <U, E> Parser<Text, U, E, Integer> readInteger() {
 		return $do(
-		$(	conclude(integer(), expected("integer"))							, number ->
-		$(	ensure(
-				number.compareTo(BigInteger.valueOf(Integer.MIN_VALUE)) >= 0 &&
-				number.compareTo(BigInteger.valueOf(Integer.MAX_VALUE)) <= 0,
-				error("Literal out of range")
-			)																	, () ->
-		$(	simple(number.intValueExact())										)))
+		$(	conclude(integer(Integer.MIN_VALUE, Integer.MAX_VALUE), expected("integer"))	, number ->
+		$(	inRange(number)																, value ->
+		$(	simple(value.intValue())													)))
 		);
 	}
 	static <U, E> Parser<Text, U, E, Long> readLong() {
 		return $do(
-		$(	conclude(integer(), expected("long"))								, number ->
-		$(	ensure(
-				number.compareTo(BigInteger.valueOf(Long.MIN_VALUE)) >= 0 &&
-				number.compareTo(BigInteger.valueOf(Long.MAX_VALUE)) <= 0,
-				error("Literal out of range")
-			)																	, () ->
-		$(	simple(number.longValueExact())										)))
+		$(	conclude(integer(Long.MIN_VALUE, Long.MAX_VALUE), expected("long"))			, number ->
+		$(	inRange(number)																, value ->
+		$(	simple(value.longValue())													)))
 		);
 	}
 	static <U, E> Parser<Text, U, E, Float> readFloat() {
@@ -78,9 +66,10 @@ public interface Read {
 			replace(string("Infinity"), Float.POSITIVE_INFINITY),
 			replace(string("-Infinity"), Float.NEGATIVE_INFINITY),
 			$do(
-			$(	sign()															, sign ->
-			$(	fraction()														, fraction ->
-			$(	simple(sign ? -fraction.floatValue() : fraction.floatValue())	)))
+			$(	sign()												, sign ->
+			$(	decimal()											, fraction ->
+			$(	simple(Decimal.toFloat(fraction.a(), fraction.b()))	, value ->
+			$(	simple(sign ? -value : value)						))))
 			)
 		), expected("float"));
 	}
@@ -90,22 +79,22 @@ public interface Read {
 			replace(string("Infinity"), Double.POSITIVE_INFINITY),
 			replace(string("-Infinity"), Double.NEGATIVE_INFINITY),
 			$do(
-			$(	sign()															, sign ->
-			$(	fraction()														, fraction ->
-			$(	simple(sign ? -fraction.doubleValue() : fraction.doubleValue())	)))
+			$(	sign()												, sign ->
+			$(	decimal()											, fraction ->
+			$(	simple(Decimal.toDouble(fraction.a(), fraction.b()))	, value ->
+			$(	simple(sign ? -value : value)						))))
 			)
 		), expected("double"));
 	}
 	static <U, E> Parser<Text, U, E, Character> readCharacter() {
 		return conclude(between(character('\''), character('\''),
-			choice(satisfy(c -> c != '\'' && c != '\\'), escape())
+			choice(satisfyChar(c -> c != '\'' && c != '\\'), escape())
 		), expected("character"));
 	}
 	static <U, E> Parser<Text, U, E, String> readString() {
-		return conclude(between(character('\"'), character('\"'), $(
-		$(	some(choice(satisfy(c -> c != '\"' && c != '\\'), escape()))					, characters ->
-		$(	simple(characters.foldl(StringBuilder::append, new StringBuilder()).toString())	))
-		)), expected("string"));
+		return conclude(between(character('\"'), character('\"'),
+			someString(choice(satisfyChar(c -> c != '\"' && c != '\\'), escape()))
+		), expected("string"));
 	}
 
 	static <U, E> Parser<Text, U, E, Boolean> sign() {
@@ -128,7 +117,7 @@ public interface Read {
 		return $do(
 			$(	sign()														, sign ->
 			$(	digits(BigInteger.TEN, $do(
-				$(	satisfy(c -> c >= '0' && c <= '9')	, c ->
+				$(	satisfyChar(c -> c >= '0' && c <= '9')	, c ->
 				$(	simple(BigInteger.valueOf(c - '0'))	))
 			))																, integer ->
 			$(	simple(sign ? integer.second().negate() : integer.second())	)))
@@ -137,13 +126,13 @@ public interface Read {
 	static <U, E> Parser<Text, U, E, BigDecimal> fraction() {
 		return $do(
 			$(	digits(BigInteger.TEN, $do(
-				$(	satisfy(c -> c >= '0' && c <= '9')	, c ->
+				$(	satisfyChar(c -> c >= '0' && c <= '9')	, c ->
 				$(	simple(BigInteger.valueOf(c - '0'))	))
 			))																, integer ->
 			$(	choice($do(
 				$(	character('.')									, () ->
 				$(	digits(BigInteger.TEN, $do(
-					$(	satisfy(c -> c >= '0' && c <= '9')	, c ->
+					$(	satisfyChar(c -> c >= '0' && c <= '9')	, c ->
 					$(	simple(BigInteger.valueOf(c - '0'))	))
 				))													))
 			), simple(tuple(0, BigInteger.ZERO)))							, fraction ->
@@ -153,6 +142,37 @@ public interface Read {
 			$(	simple(new BigDecimal(significand, fraction.first())		)))))
 		);
 	}
+	static <U, E> Parser<Text, U, E, String> decimalDigits() {
+		return $do(
+		$(	satisfyChar(ASCII_DIGIT)		, first ->
+		$(	stringSatisfyChar(ASCII_DIGIT)	, rest ->
+		$(	simple(first + rest)		)))
+		);
+	}
+	static <U, E> Parser<Text, U, E, Maybe<Long>> integer(long min, long max) {
+		return $do(
+		$(	sign()														, sign ->
+		$(	decimalDigits()												, digits ->
+		$(	simple(Decimal.negative(digits, sign ? min : -max))		, number ->
+		$(	simple(number > 0 ? Maybe.<Long>nothing() : just(sign ? number : -number))	))))
+		);
+	}
+	static <U, E> Parser<Text, U, E, Long> inRange(Maybe<Long> number) {
+		return switch (number) {
+			case Nothing<Long> p1 -> stop(error("Literal out of range"));
+			case Just<Long> p1 -> simple(p1.a());
+		};
+	}
+	static <U, E> Parser<Text, U, E, Tuple<String, String>> decimal() {
+		return $do(
+		$(	decimalDigits()								, integer ->
+		$(	choice($do(
+			$(	character('.')		, () ->
+			$(	decimalDigits()		))
+			), simple(""))								, fraction ->
+		$(	simple(tuple(integer, fraction))			)))
+		);
+	}
 	static <U, E> Parser<Text, U, E, Character> escape() {
 		return $do(
 		$(	character('\\')						, () ->
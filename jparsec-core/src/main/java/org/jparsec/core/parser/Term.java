@@ -1,10 +1,21 @@
 package org.jparsec.core.parser;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.jparsec.core.Parser;
 import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+import org.jparsec.core.parser.Char;
+import static org.jparsec.core.parser.Char.*;
 import org.jparsec.core.parser.Combinator;
 import static org.jparsec.core.parser.Combinator.*;
 
@@ -29,9 +40,23 @@ public interface Term {
 		Parser<S, U, E, ?> bracketBeginP,
 		Parser<S, U, E, ?> bracketEndP,
 		Function<N, Parser<S, U, E, ?>> notationP,
+		Function<Collection<N>, Parser<S, U, E, N>> notationsP,
 		Parser<S, U, E, T> scalarP,
 		List<Level<N, T>> levels
 	) {
+		public Definition(
+			Parser<S, U, E, ?> spacesP,
+			Parser<S, U, E, ?> bracketBeginP,
+			Parser<S, U, E, ?> bracketEndP,
+			Function<N, Parser<S, U, E, ?>> notationP,
+			Parser<S, U, E, T> scalarP,
+			List<Level<N, T>> levels
+		) {
+			this(spacesP, bracketBeginP, bracketEndP, notationP, notations -> notations.stream().map(notation -> $do(
+			$(	attempt(notationP.apply(notation))	, () ->
+			$(	Parser.<S, U, E, N>simple(notation)	))
+			)).reduce(ignore(), Parser::plus), scalarP, levels);
+		}
 		@SafeVarargs
 		public static <S, U, E, N, T> Definition<S, U, E, N, T> definition(
 			Parser<S, U, E, ?> spacesP,
@@ -43,6 +68,16 @@ public interface Term {
 		) {
 			return new Definition<>(spacesP, bracketBeginP, bracketEndP, notationP, termP, list(levels));
 		}
+		@SafeVarargs
+		public static <U, E, T> Definition<Text, U, E, String, T> definition(
+			Parser<Text, U, E, ?> spacesP,
+			Parser<Text, U, E, ?> bracketBeginP,
+			Parser<Text, U, E, ?> bracketEndP,
+			Parser<Text, U, E, T> termP,
+			Level<String, T>... levels
+		) {
+			return new Definition<>(spacesP, bracketBeginP, bracketEndP, Char::string, Char::strings, termP, list(levels));
+		}
 	}
 	record Level<N, T>(Associativity associativity, List<Operand<N, T>> operands) {
 		@SafeVarargs
@@ -77,93 +112,56 @@ public interface Term {
 	}
 
 	static <S, U, E, N, T> Parser<S, U, E, T> termP(Definition<S, U, E, N, T> definition) {
-		return recur(() -> new Object() {
-			Parser<S, U, E, T> levelP(List<Level<N, T>> current) {
-				return switch (current) {
-					case Nil<Level<N, T>> p1 -> recur(() -> bracketP());
-					case Cons<Level<N, T>> p1 -> switch (p1.head().associativity()) {
-						case NONE -> recur(() -> noneP(p1.head(), p1.tail()));
-						case LEFT -> recur(() -> leftP(p1.head(), p1.tail()));
-						case RIGHT -> recur(() -> rightP(p1.head(), p1.tail()));
-					};
-				};
-			}
-			Parser<S, U, E, T> noneP(Level<N, T> level, List<Level<N, T>> higher) {
-				return $do(
-				$(	recur(() -> levelP(higher))																				, term ->
-				$(	option($do(
-					$(	recur(() -> operandP(
-							level.operands(),
-							simple(term),
-							recur(() -> levelP(higher))
-						))																						, result ->
-					$(	switch (result.second()) {
-							case Left<List<Term.Operand<N, T>>, T> p1 -> loop(p1.a(), operands1 -> $do(
-							$(	recur(() -> operandP(
-									operands1,
-									recur(() -> levelP(higher)),
-									recur(() -> levelP(higher))
-								))																	, result1 ->
-							$(	simple(result1.second())											))
-							));
-							case Right<List<Term.Operand<N, T>>, T> p1 -> simple(p1.b());
-						}																						))
-					), term)																								))
-				);
+		return new Object() {
+			final Map<java.util.List<N>, Parser<S, U, E, N>> notations = new ConcurrentHashMap<>();
+			final java.util.List<Level<N, T>> levels = definition.levels().stream().toList();
+			final java.util.List<Parser<S, U, E, T>> levelPs = new ArrayList<>(Collections.nCopies(levels.size() + 1, null));
+
+			Parser<S, U, E, T> termP() {
+				levelPs.set(levels.size(), bracketP(recur(() -> levelPs.get(0))));
+				for (int i = levels.size() - 1; i >= 0; i--) {
+					int level = i;
+					levelPs.set(level, levelP(levels.get(level), levelPs.get(level + 1), recur(() -> levelPs.get(level))));
+				}
+				return levelPs.get(0);
 			}
-			Parser<S, U, E, T> leftP(Level<N, T> level, List<Level<N, T>> higher) {
-				return $do(
-				$(	recur(() -> levelP(higher))																				, term ->
-				$(	iterateSome(term, term1 -> $do(
-					$(	recur(() -> operandP(
-							level.operands(),
-							simple(term1),
-							recur(() -> levelP(higher))
-						))																						, result ->
-					$(	switch (result.second()) {
-							case Left<List<Term.Operand<N, T>>, T> p1 -> loop(p1.a(), operands1 -> $do(
-							$(	recur(() -> operandP(
-									operands1,
-									recur(() -> levelP(higher)),
-									recur(() -> levelP(higher))
-								))																	, result1 ->
-							$(	simple(result1.second())											))
-							));
-							case Right<List<Term.Operand<N, T>>, T> p1 -> simple(p1.b());
-						}																						))
-					))																										))
-				);
+			Parser<S, U, E, T> levelP(Level<N, T> level, Parser<S, U, E, T> higherP, Parser<S, U, E, T> selfP) {
+				Maybe<Function<T, T>> last = lastOf(level.operands());
+				Parser<S, U, E, List<Operand<N, T>>> notationP = notationP(level.operands());
+				return switch (level.associativity()) {
+					case NONE -> $do(
+					$(	higherP																			, term ->
+					$(	option(chainP(last, () -> notationP, simple(term), higherP, higherP), term)	))
+					);
+					case LEFT -> $do(
+					$(	higherP																			, term ->
+					$(	iterateSome(term, term1 -> chainP(last, () -> notationP, simple(term1), higherP, higherP))	))
+					);
+					case RIGHT -> $do(
+					$(	higherP																			, term ->
+					$(	option(chainP(last, () -> notationP, simple(term), higherP, selfP), term)		))
+					);
+				};
 			}
-			Parser<S, U, E, T> rightP(Level<N, T> level, List<Level<N, T>> higher) {
+			Parser<S, U, E, T> chainP(Maybe<Function<T, T>> last, Supplier<Parser<S, U, E, List<Operand<N, T>>>> notationP, Parser<S, U, E, T> initTermP, Parser<S, U, E, T> higherP, Parser<S, U, E, T> lastTermP) {
 				return $do(
-				$(	recur(() -> levelP(higher))																					, term ->
-				$(	option($do(
-					$(	recur(() -> operandP(
-							level.operands(),
-							simple(term),
-							recur(() -> levelP(higher))
-						))																							, result ->
-					$(	switch (result.second()) {
-							case Left<List<Term.Operand<N, T>>, T> p1 -> loop(p1.a(), operands1 -> $do(
-							$(	recur(() -> operandP(
-									operands1,
-									recur(() -> levelP(higher)),
-									recur(() -> levelP(cons(level, higher)))
-								))																	, result1 ->
-							$(	simple(result1.second())											))
-							));
-							case Right<List<Term.Operand<N, T>>, T> p1 -> simple(p1.b());
-						}																							))
-					), term)																									))
+				$(	operandP(last, notationP, initTermP, higherP)													, result ->
+				$(	switch (result.second()) {
+						case Left<List<Term.Operand<N, T>>, T> p1 -> loop(p1.a(), operands1 -> $do(
+						$(	operandP(lastOf(operands1), () -> notationP(operands1), higherP, lastTermP)	, result1 ->
+						$(	simple(result1.second())											))
+						));
+						case Right<List<Term.Operand<N, T>>, T> p1 -> simple(p1.b());
+					}																							))
 				);
 			}
-			Parser<S, U, E, Tuple<T, Either<List<Operand<N, T>>, T>>> operandP(List<Operand<N, T>> operands, Parser<S, U, E, T> initTermP, Parser<S, U, E, T> lastTermP) {
-				return switch (maybe(operands.stream().flatMap(operand -> operand.last().stream()).findFirst())) {
+			Parser<S, U, E, Tuple<T, Either<List<Operand<N, T>>, T>>> operandP(Maybe<Function<T, T>> last, Supplier<Parser<S, U, E, List<Operand<N, T>>>> notationP, Parser<S, U, E, T> initTermP, Parser<S, U, E, T> lastTermP) {
+				return switch (last) {
 					case Nothing<Function<T, T>> p1 -> $do(
 					$(	initTermP												, term ->
 					$(	attempt($do(
 						$(	definition.spacesP()				, () ->
-						$(	recur(() -> notationP(operands))	, operands1 ->
+						$(	notationP.get()						, operands1 ->
 						$(	definition.spacesP()				, () ->
 						$(	simple(operands1)					))))
 						))														, operands1 ->
@@ -179,25 +177,23 @@ public interface Term {
 					);
 				};
 			}
+			Maybe<Function<T, T>> lastOf(List<Operand<N, T>> operands) { return maybe(operands.stream().flatMap(operand -> operand.last().stream()).findFirst()); }
 			Parser<S, U, E, List<Operand<N, T>>> notationP(List<Operand<N, T>> operands) {
-				return $do(
-				$(	operands.stream().flatMap(operand -> operand.safeNotation().stream()).distinct().map(notation -> $do(
-					$(	attempt(definition.notationP().apply(notation))	, () ->
-					$(	simple(notation)								))
-					)).reduce(ignore(), Parser::plus)																				, notation ->
-				$(	simple(operands.filter(operand -> operand.safeNotation().all(notation1 -> Objects.equals(notation1, notation))))	))
-				);
+				java.util.List<N> distinct = operands.stream().flatMap(operand -> operand.safeNotation().stream()).distinct().toList();
+				HashMap<N, List<Operand<N, T>>> filtered = new HashMap<>();
+				for (N notation : distinct) filtered.put(notation, operands.filter(operand -> operand.safeNotation().all(notation1 -> Objects.equals(notation1, notation))));
+				return notations.computeIfAbsent(distinct, definition.notationsP()::apply).map(filtered::get);
 			}
-			Parser<S, U, E, T> bracketP() {
+			Parser<S, U, E, T> bracketP(Parser<S, U, E, T> termP) {
 				return choice($do(
-				$(	definition.bracketBeginP()					, () ->
-				$(	definition.spacesP()						, () ->
-				$(	recur(() -> levelP(definition.levels()))	, expr ->
-				$(	definition.spacesP()						, () ->
-				$(	definition.bracketEndP()					, () ->
-				$(	simple(expr)								))))))
+				$(	definition.bracketBeginP()		, () ->
+				$(	definition.spacesP()			, () ->
+				$(	termP							, expr ->
+				$(	definition.spacesP()			, () ->
+				$(	definition.bracketEndP()		, () ->
+				$(	simple(expr)					))))))
 				), definition.scalarP());
 			}
-		}.levelP(definition.levels()));
+		}.termP();
 	}
 }
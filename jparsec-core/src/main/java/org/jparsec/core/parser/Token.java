@@ -0,0 +1,125 @@
+package org.jparsec.core.parser;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Parser.Environment;
+import static org.jparsec.core.Parser.Environment.*;
+import org.jparsec.core.Parser.Lines;
+import org.jparsec.core.Parser.Location;
+import org.jparsec.core.Parser.Message;
+import static org.jparsec.core.Parser.Message.*;
+import static org.jparsec.core.Parser.Result.*;
+import org.jparsec.core.Text;
+import org.jparsec.core.TokenStream;
+import static org.jparsec.core.parser.Combinator.*;
+
+import static org.jparsec.core.Parser.Notation.*;
+
+import org.monadium.core.data.Tuple;
+import static org.monadium.core.data.Tuple.*;
+import org.monadium.core.data.Unit;
+import static org.monadium.core.data.Unit.*;
+
+import static org.monadium.core.Notation.*;
+import static org.monadium.core.control.Trampoline.*;
+import static org.monadium.core.control.Trampoline.Notation.*;
+
+public interface Token {
+	interface Kinded<K> { K kind(); }
+
+	static <U, E, T> Parser<TokenStream<T>, U, E, Unit> eof() {
+		Message<E> message = expected("eof");
+		return parser(e -> e.stream().isEmpty() ? done(success(e, false, unit())) : done(fail(e.log(message), false, false)), c -> {
+			if (c.stream().isEmpty()) return c.success(false, unit());
+			c.log(message);
+			return c.fail(false, false);
+		});
+	}
+	static <U, E, T> Parser<TokenStream<T>, U, E, T> any() { return satisfyToken(t -> true); }
+	static <U, E, K, T extends Kinded<K>> Parser<TokenStream<T>, U, E, T> token(K kind) { return conclude(satisfyToken(t -> Objects.equals(t.kind(), kind)), expected(String.valueOf(kind))); }
+	static <U, E, T, A extends T> Parser<TokenStream<T>, U, E, A> tokenOf(Class<A> type) { return conclude(Token.<U, E, T>satisfyToken(type::isInstance), expected(type.getSimpleName())).map(type::cast); }
+	static <U, E, T> Parser<TokenStream<T>, U, E, T> satisfyToken(Predicate<? super T> p) {
+		Message<E> message = unexpected("eof");
+		return parser(e -> e.stream().isEmpty()
+			? done(fail(e.log(message), false, false))
+			: p.test(e.stream().head())
+			? done(success(advance(e.updateStream(e.stream().tail()), e.stream().tail().location()), true, e.stream().head()))
+			: done(fail(e.log(() -> unexpected(String.valueOf(e.stream().head()))), false, false))
+		, c -> {
+			TokenStream<T> s = c.stream();
+			if (s.isEmpty()) { c.log(message); return c.fail(false, false); }
+			if (!p.test(s.head())) { c.log(() -> unexpected(String.valueOf(s.head()))); return c.fail(false, false); }
+			Location next = s.tail().location();
+			c.updateStream(s.tail());
+			c.advance(next.offset() - c.offset());
+			if (!c.location().equals(next)) c.updateLocation(next);
+			return c.success(true, s.head());
+		});
+	}
+
+	static <U, E, T> Parser<Text, U, E, TokenStream<T>> tokenize(Parser<Text, U, E, T> token, Parser<Text, U, E, ?> skip) {
+		Parser<Text, U, E, Tuple<Location, T>> located = $do(
+		$(	getLocation()			, location ->
+		$(	token					, t ->
+		$(	skip					, () ->
+		$(	simple(tuple(location, t))	))))
+		);
+		return $do(
+		$(	skip					, () ->
+		$(	someList(located)		, ts ->
+		$(	getLocation()			, end ->
+		$(	Char.<U, E>eof()		, () ->
+		$(	simple(tokenStream(ts, end))	)))))
+		);
+	}
+	static <U, E, T, A> Parser<Text, U, E, A> lexer(Parser<Text, U, E, T> token, Parser<Text, U, E, ?> skip, Parser<TokenStream<T>, U, E, A> p) {
+		Parser<Text, U, E, TokenStream<T>> tokens = tokenize(token, skip);
+		return parser(e -> $do(
+		$(	tokens.parser().apply(e)																											, result1 -> switch (result1) {
+			case Fail<Text, U, E, TokenStream<T>> p1 -> done(fail(p1.environment(), p1.consumed(), p1.halt()));
+			case Success<Text, U, E, TokenStream<T>> p1 -> $do(
+			$(	p.parser().apply(forget(environment(p1.result(), p1.environment().user(), p1.result().location().offset(), lines(p1.result()), p1.environment().logger(), p1.environment().context())))	, result2 ->
+			$(	switch (result2) {
+					case Success<TokenStream<T>, U, E, A> p2 -> done(success(source(e, p2.environment()), p1.consumed() || p2.consumed(), p2.result()));
+					case Fail<TokenStream<T>, U, E, A> p2 -> done(fail(source(e, p2.environment()), p2.consumed(), p2.halt()));
+				}																																))
+			);
+		})
+		));
+	}
+
+	private static <T> TokenStream<T> tokenStream(java.util.List<Tuple<Location, T>> ts, Location end) {
+		java.util.List<T> tokens = new ArrayList<>(ts.size());
+		java.util.List<Location> locations = new ArrayList<>(ts.size() + 1);
+		for (Tuple<Location, T> t : ts) { locations.add(t.a()); tokens.add(t.b()); }
+		locations.add(end);
+		return TokenStream.tokenStream(tokens, locations);
+	}
+	private static <T> Lines lines(TokenStream<T> ts) {
+		Lines lines = Lines.lines(ts.location());
+		Location previous = ts.location();
+		for (int i = ts.index() + 1; i < ts.locations().length; i++) {
+			Location location = ts.locations()[i];
+			for (int k = location.line() - previous.line(); k > 0; k--) lines.newline(location.offset() - location.column() + 2 - k);
+			previous = location;
+		}
+		return lines;
+	}
+	private static <S, U, E> Environment<S, U, E> advance(Environment<S, U, E> e, Location location) {
+		Environment<S, U, E> environment = e.advance(location.offset() - e.offset());
+		return environment.location().equals(location) ? environment : environment.updateLocation(location);
+	}
+	private static <S, U, E> Environment<S, U, E> forget(Environment<S, U, E> e) {
+		if (e.context() != null) e.context().forget();
+		return e;
+	}
+	private static <U, E, T> Environment<Text, U, E> source(Environment<Text, U, E> e, Environment<TokenStream<T>, U, E> environment) {
+		Location location = environment.stream().location();
+		if (environment.context() != null) environment.context().forget();
+		return environment(e.stream().drop(location.offset() - e.offset()), environment.user(), location, environment.logger(), environment.context());
+	}
+}
@@ -0,0 +1,77 @@
+package org.jparsec.core.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+
+final class Trie<A> {
+	record Match<A>(String key, A value, Text rest) {}
+
+	private final char[] keys;
+	private final Trie<A>[] children;
+	private final String key;
+	private final A value;
+
+	private Trie(char[] keys, Trie<A>[] children, String key, A value) {
+		this.keys = keys;
+		this.children = children;
+		this.key = key;
+		this.value = value;
+	}
+
+	static <A> Trie<A> trie(Map<String, A> table) { return build(new ArrayList<>(new TreeMap<>(table).entrySet()), 0); }
+
+	Match<A> match(Text t) {
+		Trie<A> node = this;
+		Match<A> match = key == null ? null : new Match<>(key, value, t);
+		while (t instanceof Nonempty p1 && (node = node.child(p1.head())) != null) {
+			t = p1.tail();
+			if (node.key != null) match = new Match<>(node.key, node.value, t);
+		}
+		return match;
+	}
+
+	private Trie<A> child(char c) {
+		if (keys.length <= 8) {
+			for (int i = 0; i < keys.length; i++) if (keys[i] == c) return children[i];
+			return null;
+		}
+		int lo = 0, hi = keys.length - 1;
+		while (lo <= hi) {
+			int mid = lo + hi >>> 1;
+			if (keys[mid] < c) lo = mid + 1;
+			else if (keys[mid] > c) hi = mid - 1;
+			else return children[mid];
+		}
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <A> Trie<A> build(List<Map.Entry<String, A>> entries, int depth) {
+		int i = 0;
+		String key = null;
+		A value = null;
+		if (!entries.isEmpty() && entries.get(0).getKey().length() == depth) {
+			key = entries.get(0).getKey();
+			value = entries.get(0).getValue();
+			i = 1;
+		}
+		List<Character> keys = new ArrayList<>();
+		List<Trie<A>> children = new ArrayList<>();
+		while (i < entries.size()) {
+			char c = entries.get(i).getKey().charAt(depth);
+			int j = i;
+			while (j < entries.size() && entries.get(j).getKey().charAt(depth) == c) j++;
+			keys.add(c);
+			children.add(build(entries.subList(i, j), depth + 1));
+			i = j;
+		}
+		char[] keys1 = new char[keys.size()];
+		for (int k = 0; k < keys1.length; k++) keys1[k] = keys.get(k);
+		return new Trie<>(keys1, children.toArray(new Trie[0]), key, value);
+	}
+}
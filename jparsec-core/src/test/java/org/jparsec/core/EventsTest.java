@@ -0,0 +1,80 @@
+package org.jparsec.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import static org.jparsec.core.Profile.*;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+import static org.jparsec.core.parser.Char.*;
+import org.jparsec.core.parser.Combinator;
+import static org.jparsec.core.parser.Combinator.*;
+
+import org.monadium.core.data.Unit;
+import static org.monadium.core.data.Unit.*;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventsTest {
+	@Test public void testEvents() throws IOException {
+		Parser<Text, Unit, Void, String> word = profiled("word", Combinator.<Text, Unit, Void>manyString(letter()));
+		Parser<Text, Unit, Void, Unit> p = sequence(word, character(' '), word);
+		Path path = Files.createTempFile("events", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("org.jparsec.Parse");
+			recording.enable("org.jparsec.NamedParse");
+			recording.start();
+			runParser(p, text("ab cde"));
+			runFast(p, text("ab 1"));
+			Parser<Text, Unit, Void, String> letters = manyString(letter());
+			runParser(letters.map(s -> evalParser(letters, text(s)).coerceJust()), text("abc"));
+			ForkJoinPool pool = new ForkJoinPool(4);
+			runFast(parallelManySep(newline(), letters, pool), text("abc\n".repeat(100000)));
+			pool.shutdown();
+			recording.stop();
+			recording.dump(path);
+			java.util.List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+			java.util.List<RecordedEvent> parses = events.stream().filter(e -> e.getEventType().getName().equals("org.jparsec.Parse")).toList();
+			java.util.List<RecordedEvent> named = events.stream().filter(e -> e.getEventType().getName().equals("org.jparsec.NamedParse")).toList();
+			assertEquals(4, parses.size());
+			RecordedEvent first = parses.stream().filter(e -> e.getString("mode").equals("runParser")).findFirst().orElseThrow();
+			assertTrue(first.getBoolean("success"));
+			assertEquals(6, first.getLong("consumed"));
+			assertEquals(6, first.getLong("inputLength"));
+			assertTrue(first.getLong("results") > 0);
+			assertTrue(first.getLong("environments") > 0);
+			RecordedEvent second = parses.stream().filter(e -> e.getString("mode").equals("runFast")).findFirst().orElseThrow();
+			assertFalse(second.getBoolean("success"));
+			assertEquals(3, second.getLong("consumed"));
+			assertEquals(0, second.getLong("furthest"));
+			assertEquals(4, named.size());
+			assertEquals(3, named.stream().filter(e -> e.getBoolean("success")).count());
+			assertTrue(named.stream().allMatch(e -> e.getString("name").equals("word")));
+		} finally {
+			Files.delete(path);
+		}
+	}
+	@Test public void testCounters() {
+		Environment<Text, Unit, Void> environment = Environment.environment(text("abc"), unit(), Location.location(), Logger.logger());
+		runParser(manyString(letter()), environment);
+		assertEquals(0, environment.context().environments());
+		assertEquals(0, environment.context().results());
+		try (Recording recording = new Recording()) {
+			recording.enable("org.jparsec.Parse");
+			recording.start();
+			runParser(manyString(letter()), environment);
+			recording.stop();
+		}
+		assertTrue(environment.context().environments() > 3);
+		assertTrue(environment.context().results() >= 4);
+	}
+}
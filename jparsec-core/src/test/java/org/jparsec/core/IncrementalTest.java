@@ -0,0 +1,152 @@
+package org.jparsec.core;
+
+import org.jparsec.core.Incremental;
+import static org.jparsec.core.Incremental.*;
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import static org.jparsec.core.Parser.Location.*;
+import static org.jparsec.core.Parser.Message.*;
+import org.jparsec.core.Parser.Result;
+import static org.jparsec.core.ParserAssertions.*;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+import static org.jparsec.core.parser.Char.*;
+import static org.jparsec.core.parser.Combinator.*;
+
+import static org.jparsec.core.Parser.Notation.*;
+
+import org.monadium.core.data.Unit;
+import static org.monadium.core.data.Unit.*;
+import org.monadium.core.data.List;
+import org.monadium.core.data.Tuple;
+
+import static org.monadium.core.Notation.*;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalTest {
+	@Test public void testEdit() {
+		int[] count = { 0 };
+		Parser<Text, Unit, Void, String> entry = $do(
+		$(	manyString(letter())		, key ->
+		$(	character('=')				, () ->
+		$(	manyString(digit())			, value ->
+		$(	character('\n')				, () ->
+		$(	simple(key + "=" + value)	)))))
+		);
+		Parser<Text, Unit, Void, String> line = node(entry.map(s -> { count[0]++; return s; }));
+		Parser<Text, Unit, Void, List<String>> document = $do(
+		$(	some(line)			, lines ->
+		$(	eof()				, () ->
+		$(	simple(lines)		)))
+		);
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 200; i++) builder.append("key").append((char) ('a' + i % 26)).append('=').append(i).append('\n');
+		Incremental<Unit, Void, List<String>> incremental = incremental(document, text(builder.toString()), unit());
+		assertEquals(200, count[0]);
+		assertSameResult(runParser(document, incremental.document()), incremental.result());
+
+		int line50 = builder.indexOf("=50\n") + 1;
+		count[0] = 0;
+		incremental.edit(line50, 1, text("7"));
+		assertTrue(count[0] <= 2);
+		assertSameResult(runParser(document, text(builder.replace(line50, line50 + 1, "7").toString())), incremental.result());
+		assertTrue(incremental.reused() >= 190);
+
+		int line10 = builder.indexOf("keyk=10\n");
+		assertSameResult(runParser(document, text(builder.insert(line10, "ab=12\n").toString())), incremental.edit(line10, 0, text("ab=12\n")));
+		int line80 = builder.indexOf("=80\n");
+		assertSameResult(runParser(document, text(builder.replace(line80, line80 + 1, "#").toString())), incremental.edit(line80, 1, text("#")));
+		assertSameResult(runParser(document, text(builder.replace(line80, line80 + 1, "=").toString())), incremental.edit(line80, 1, text("=")));
+		int line120 = builder.indexOf("keyq=120\n");
+		assertSameResult(runParser(document, text(builder.delete(line120, line120 + 9).toString())), incremental.edit(line120, 9, emptyText()));
+		count[0] = 0;
+		incremental.edit(incremental.document().length(), 0, text("end=0\n"));
+		assertTrue(count[0] <= 2);
+		assertSameResult(runParser(document, text(builder.append("end=0\n").toString())), incremental.result());
+		assertEquals(builder.toString(), incremental.document().toString());
+	}
+	@Test public void testPositional() {
+		int[] count = { 0, 0 };
+		Parser<Text, Unit, Void, String> entry = $do(
+		$(	manyString(letter())						, key ->
+		$(	character('\n')							, () ->
+		$(	Parser.<Text, Unit, Void>getLocation()	, location ->
+		$(	simple(key + "@" + location.line())		))))
+		);
+		Parser<Text, Unit, Void, String> line = node(entry.map(s -> { count[0]++; return s; }));
+		Parser<Text, Unit, Void, String> number = $do(
+		$(	manyString(digit())		, value ->
+		$(	character('\n')			, () ->
+		$(	simple(value)			)))
+		);
+		Parser<Text, Unit, Void, String> plain = node(number.map(s -> { count[1]++; return s; }));
+		Parser<Text, Unit, Void, List<String>> document = $do(
+		$(	some(choice(line, plain))	, lines ->
+		$(	eof()						, () ->
+		$(	simple(lines)				)))
+		);
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 100; i++) builder.append(i % 2 == 0 ? "key\n" : i + "\n");
+		Incremental<Unit, Void, List<String>> incremental = incremental(document, text(builder.toString()), unit());
+		assertSameResult(runParser(document, incremental.document()), incremental.result());
+		count[0] = count[1] = 0;
+		Result<Text, Unit, Void, List<String>> result = incremental.edit(0, 0, text("new\n"));
+		assertEquals(51, count[0]);
+		assertEquals(0, count[1]);
+		assertTrue(incremental.reused() >= 50);
+		assertSameResult(runParser(document, text(builder.insert(0, "new\n").toString())), result);
+		int middle = builder.indexOf("\n51\n") + 1;
+		assertSameResult(runParser(document, text(builder.replace(middle, middle + 2, "5\n1").toString())), incremental.edit(middle, 2, text("5\n1")));
+	}
+	@Test public void testNested() {
+		Parser<Text, Unit, Void, String> line = node($do(
+		$(	someString(letter())		, word ->
+		$(	character('\n')			, () ->
+		$(	simple(word)				)))
+		));
+		Parser<Text, Unit, Void, String> block = node($do(
+		$(	some(line)					, words ->
+		$(	string(";\n")				, () ->
+		$(	simple(String.join(",", words))	)))
+		));
+		Parser<Text, Unit, Void, List<String>> document = $do(
+		$(	some(block)			, blocks ->
+		$(	eof()				, () ->
+		$(	simple(blocks)		)))
+		);
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 30; i++) builder.append("ab\ncd\nef\n;\n");
+		Incremental<Unit, Void, List<String>> incremental = incremental(document, text(builder.toString()), unit());
+		assertSameResult(runParser(document, incremental.document()), incremental.result());
+		int middle = 15 * 11 + 3;
+		assertSameResult(runParser(document, text(builder.replace(middle, middle + 1, "x").toString())), incremental.edit(middle, 1, text("x")));
+		assertTrue(incremental.reused() >= 29);
+		assertSameResult(runParser(document, text(builder.insert(middle, "gh\nij\n").toString())), incremental.edit(middle, 0, text("gh\nij\n")));
+		int end = builder.length();
+		assertSameResult(runParser(document, text(builder.append("kl\n\n").toString())), incremental.edit(end, 0, text("kl\n\n")));
+	}
+	@Test public void testNotes() {
+		Parser<Text, Unit, Void, String> line = node($do(
+		$(	manyString(letter())						, word ->
+		$(	Parser.<Text, Unit, Void>log(warning(word))	, () ->
+		$(	character('\n')							, () ->
+		$(	simple(word)								))))
+		));
+		Parser<Text, Unit, Void, List<String>> document = $do(
+		$(	some(line)			, lines ->
+		$(	eof()				, () ->
+		$(	simple(lines)		)))
+		);
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 50; i++) builder.append("ab\n");
+		Incremental<Unit, Void, List<String>> incremental = incremental(document, text(builder.toString()), unit());
+		assertSameResult(runParser(document, incremental.document()), incremental.result());
+		assertSameResult(runParser(document, text(builder.insert(0, "new\n").toString())), incremental.edit(0, 0, text("new\n")));
+		assertTrue(incremental.reused() >= 45);
+		assertEquals(location().advanceString("new\nab\nab"), incremental.result().getEnvironment().logger().messages().map(Tuple::a).sorted().skip(2).findFirst().orElseThrow());
+		assertSameResult(runParser(document, text(builder.replace(1, 2, "\n").toString())), incremental.edit(1, 1, text("\n")));
+		assertSameResult(runParser(document, text(builder.delete(0, 4).toString())), incremental.edit(0, 4, emptyText()));
+	}
+}
@@ -0,0 +1,19 @@
+package org.jparsec.core;
+
+import org.jparsec.core.Parser.Result;
+import org.jparsec.core.Text;
+
+import org.monadium.core.data.Unit;
+import org.monadium.core.data.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class ParserAssertions {
+	private ParserAssertions() {}
+
+	public static <A> void assertSameResult(Result<Text, Unit, Void, List<A>> expected, Result<Text, Unit, Void, List<A>> actual) {
+		assertEquals(expected.getEnvironment(), actual.getEnvironment());
+		assertEquals(expected.getConsumed(), actual.getConsumed());
+		assertEquals(expected.getResult().stream().flatMap(List::stream).toList(), actual.getResult().stream().flatMap(List::stream).toList());
+	}
+}
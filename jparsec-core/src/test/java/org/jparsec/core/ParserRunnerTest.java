@@ -0,0 +1,77 @@
+package org.jparsec.core;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import static org.jparsec.core.ParserRunner.*;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+import static org.jparsec.core.parser.Char.*;
+import org.jparsec.core.parser.Combinator;
+import static org.jparsec.core.parser.Combinator.*;
+
+import org.monadium.core.data.Unit;
+import static org.monadium.core.data.Unit.*;
+import org.monadium.core.data.List;
+import static org.monadium.core.data.Maybe.*;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParserRunnerTest {
+	@Test public void testRun() {
+		Parser<Text, Unit, Void, List<String>> p = someSep(character(','), manyString(digit()));
+		ParserRunner<Text, Unit, Void, List<String>> runner = runner(p);
+		assertEquals(runParser(p, text("1,23,456")), runner.run(text("1,23,456"), unit()));
+		assertEquals(runParser(p, text("1,x")), runner.run(text("1,x"), unit()));
+		assertEquals(runParser(p, text("7")), runner.run(text("7"), unit()));
+	}
+	@Test public void testConcurrent() {
+		Parser<Text, Unit, Void, List<String>> p = someSep(character(','), choice(manyString(digit()), string("x")));
+		ArrayList<Text> inputs = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) inputs.add(text(i % 7 == 0 ? i + ",y" : i + "," + (i * 31) + ",x"));
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			java.util.List<Result<Text, Unit, Void, List<String>>> results = runner(p, executor).runAll(inputs, unit());
+			for (int i = 0; i < inputs.size(); i++) assertEquals(runParser(p, inputs.get(i)), results.get(i));
+		} finally {
+			executor.shutdown();
+		}
+	}
+	@Test public void testSharedEnvironment() {
+		Parser<Text, Unit, Void, List<String>> p = someSep(newline(), choice(attempt(string("ab")), manyString(letter())));
+		String input = "ab\nabc\n".repeat(500) + "x";
+		Environment<Text, Unit, Void> environment = Environment.environment(text(input), unit(), Location.location(), Logger.logger());
+		long environments = environment.context().environments();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			ParserRunner<Text, Unit, Void, List<String>> runner = runner(p, executor);
+			java.util.List<CompletableFuture<Result<Text, Unit, Void, List<String>>>> futures = new ArrayList<>();
+			for (int i = 0; i < 64; i++) futures.add(CompletableFuture.supplyAsync(() -> runner.run(environment), executor));
+			for (CompletableFuture<Result<Text, Unit, Void, List<String>>> future : futures) assertEquals(runParser(p, text(input)), future.join());
+			assertEquals(environments, environment.context().environments());
+		} finally {
+			executor.shutdown();
+		}
+	}
+	@Test public void testReentrant() {
+		java.util.List<ParserRunner<Text, Unit, Void, String>> runner = new ArrayList<>();
+		Parser<Text, Unit, Void, String> p = choice(manyString(digit()), Combinator.<Text, Unit, Void>manyString(letter()).map(s -> s + runner.get(0).run(text("42"), unit()).coerceResult()));
+		runner.add(runner(p));
+		assertEquals(just("ab42"), runner.get(0).run(text("ab"), unit()).getResult());
+		assertEquals(just("cd42"), runner.get(0).run(text("cd"), unit()).getResult());
+	}
+	@Test public void testProfiled() {
+		Parser<Text, Unit, Void, String> p = Profile.profiled("number", Combinator.<Text, Unit, Void>manyString(digit()));
+		Environment<Text, Unit, Void> environment = Environment.environment(text("42"), unit(), Location.location(), Logger.logger());
+		Profile profile = Profile.profile();
+		environment.context().profile = profile;
+		assertEquals(just("42"), runner(p).run(environment).getResult());
+		assertEquals(1, profile.stats().size());
+		assertEquals(1, profile.stats().get(0).invocations());
+	}
+}
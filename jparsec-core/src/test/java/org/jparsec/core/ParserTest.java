@@ -2,11 +2,24 @@ package org.jparsec.core;
 
 import org.jparsec.core.Parser;
 import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Parser.Location;
+import static org.jparsec.core.Parser.Location.*;
+import org.jparsec.core.Parser.Logger;
+import static org.jparsec.core.Parser.Logger.*;
+import org.jparsec.core.Parser.Message;
+import static org.jparsec.core.Parser.Message.*;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+import org.jparsec.core.parser.Char;
+import static org.jparsec.core.parser.Char.*;
+import org.jparsec.core.parser.Combinator;
+import static org.jparsec.core.parser.Combinator.*;
 
 import static org.jparsec.core.Parser.Notation.*;
 
 import org.monadium.core.data.Unit;
 import static org.monadium.core.data.Unit.*;
+import org.monadium.core.data.List;
 import org.monadium.core.data.Maybe;
 import static org.monadium.core.data.Maybe.*;
 
@@ -32,4 +45,146 @@ public class ParserTest {
 		$(	simple(unit())	))
 		), unit()));
 	}
+
+	@Test public void testLogger() {
+		Location location1 = location("<test>", 1, 1, 2);
+		Location location2 = location("<test>", 2, 1, 3);
+		assertEquals(logger(location2, expected("y")), logger(location1, expected("x")).concat(logger(location2, expected("y"))));
+		assertEquals(logger(location2, expected("y")), logger(location2, expected("y")).log(location1, expected("x")));
+		assertEquals(logger(location1, expected("x"), expected("y")), logger(location1, expected("x")).log(location1, expected("y")));
+
+		Logger<Unit> notes = Logger.<Unit>logger().log(location1, warning("w")).log(location1, expected("x")).log(location2, expected("y"));
+		assertEquals(logger(location1, warning("w")).concat(logger(location2, expected("y"))), notes);
+		assertEquals(2, notes.messages().count());
+		Logger<Unit> branch1 = notes.log(location1, info("a")), branch2 = notes.log(location2, info("b"));
+		assertEquals(notes.log(location1, info("a")).log(location2, info("b")).toString(), branch1.concat(branch2).toString());
+		assertEquals(3, branch1.concat(branch2).concat(notes).messages().filter(message -> message.b().type() != Message.Type.EXPECTED).count());
+		assertEquals(3, branch1.concat(branch2).concat(branch2.concat(branch1)).messages().filter(message -> message.b().type() != Message.Type.EXPECTED).count());
+		assertEquals(1, notes.discard(location2.offset() + 1).messages().count());
+		assertEquals(logger(location2), logger(location1, expected("x")).log(location2));
+		assertEquals(logger(location2, expected("y")), logger(location2, expected("y")).log(location1));
+		assertEquals(just(location().advanceString("a")), runParser(sequence(Char.<Unit, Unit>string("a"), Parser.<Text, Unit, Unit, Unit>halt()), text("ab")).getEnvironment().logger().location());
+		assertEquals(runParser(sequence(Char.<Unit, Unit>string("a"), Parser.<Text, Unit, Unit, Unit>halt()), text("ab")), runFast(sequence(Char.<Unit, Unit>string("a"), Parser.<Text, Unit, Unit, Unit>halt()), text("ab")));
+		assertTrue(logger(location1, expected("x")).log(location2).toString().contains("Parser error occurred."));
+
+		boolean[] forced = { false };
+		Logger<Unit> logger = Logger.<Unit>logger().log(location1, () -> { forced[0] = true; return expected("x"); });
+		assertFalse(forced[0]);
+		assertEquals("<test>:1:(1,2):\n    Expected: x\n", logger.toString());
+		assertTrue(forced[0]);
+	}
+
+	@Test public void testMemo() {
+		int[] count = { 0 };
+		Parser<Text, Unit, Unit, String> foo = memo(recur(() -> { count[0]++; return string("foo"); }));
+		Parser<Text, Unit, Unit, Unit> p = choice(attempt(sequence(foo, string("x"))), attempt(sequence(foo, string("y"))), sequence(foo, string("z")));
+		assertEquals(just(unit()), evalParser(p, text("fooz")));
+		assertEquals(1, count[0]);
+		assertEquals(just(unit()), runFast(p, text("fooz")).getResult());
+		assertEquals(2, count[0]);
+		assertEquals(runParser(sequence(string("foo"), string("bar")), text("foox")), runParser(sequence(memo(string("foo")), string("bar")), text("foox")));
+		assertEquals(runParser(sequence(string("foo"), string("bar")), text("foox")), runFast(sequence(memo(string("foo")), string("bar")), text("foox")));
+
+		Parser<Text, Unit, Unit, String> ab = memo(string("ab"));
+		Parser<Text, Unit, Unit, Unit> replaced = sequence(lookahead(ab), setStream(text("xy")), ab);
+		assertEquals(nothing(), evalParser(replaced, text("ab")));
+		assertEquals(nothing(), runFast(replaced, text("ab")).getResult());
+		assertEquals(nothing(), evalParser(sequence(lookahead(ab), localStream(ab, s -> text("xy"))), text("ab")));
+		Parser<Text, Unit, Unit, Character> first = memo(any());
+		Parser<Text, Unit, Unit, String> rewound = $do(
+		$(	first										, x ->
+		$(	Parser.<Text, Unit, Unit>setLocation(location())		, () ->
+		$(	first										, y ->
+		$(	simple("" + x + y)							))))
+		);
+		assertEquals(just("ab"), evalParser(rewound, text("ab")));
+		assertEquals(just("ab"), runFast(rewound, text("ab")).getResult());
+		Parser<Text, Unit, Unit, Character> shifted = sequence(first, Parser.<Text, Unit, Unit>modifyLocation(l -> location())).flatMap(u -> first);
+		assertEquals(just('b'), evalParser(shifted, text("ab")));
+		assertEquals(just('b'), runFast(shifted, text("ab")).getResult());
+		Environment<Text, Unit, Unit> unmemoized = Environment.environment(text("fooz"), unit(), 0, Lines.lines(location()), logger(), null);
+		assertEquals(just(unit()), evalParser(p, unmemoized));
+		assertEquals(just(unit()), runFast(p, unmemoized).getResult());
+		assertEquals(just("foo"), evalParser(Incremental.node(foo), unmemoized));
+	}
+
+	@Test public void testCommit() {
+		Parser<Text, Unit, Unit, String> ab = string("ab");
+		Parser<Text, Unit, Unit, String> abd = string("abd");
+		Parser<Text, Unit, Unit, String> p = choice(attempt(sequence(ab, commit(), string("c"))).map(u -> "abc"), abd);
+		Parser<Text, Unit, Unit, String> q = choice(attempt(sequence(ab, string("c"))).map(u -> "abc"), abd);
+		assertEquals(just("abd"), evalParser(q, text("abd")));
+		assertEquals(nothing(), evalParser(p, text("abd")));
+		assertEquals(runParser(p, text("abd")), runFast(p, text("abd")));
+		assertEquals(runParser(p, text("abd")), runFast(p.compile(), text("abd")));
+		assertEquals(just("abc"), evalParser(p, text("abc")));
+		assertEquals(just("abd"), evalParser(choice(cut(Char.<Unit, Unit>string("x")), abd), text("abd")));
+
+		int[] count = { 0 };
+		Parser<Text, Unit, Unit, String> foo = memo(recur(() -> { count[0]++; return string("foo"); }));
+		assertEquals(just(unit()), evalParser(sequence(lookahead(foo), foo), text("foo")));
+		assertEquals(1, count[0]);
+		assertEquals(just(unit()), evalParser(sequence(lookahead(sequence(foo, commit())), foo), text("foo")));
+		assertEquals(3, count[0]);
+
+		Parser<Text, Unit, Unit, Unit> r = sequence(log(expected("x")), string("a"));
+		assertNotEquals(logger(), runParser(r, text("ab")).getEnvironment().logger());
+		assertEquals(logger(), runParser(sequence(r, commit()), text("ab")).getEnvironment().logger());
+		assertEquals(logger(), runFast(sequence(r, commit()), text("ab")).getEnvironment().logger());
+		assertEquals(1, runParser(sequence(r, commit()), text("ab")).getEnvironment().context().cuts());
+
+		Environment<Text, Unit, Unit> plain = Environment.environment(text("ab"), unit(), location(), logger());
+		Snapshot<Text, Unit, Unit> s0 = Snapshot.snapshot(plain);
+		assertTrue(plain.context().snapshots.isEmpty());
+		assertSame(plain, s0.release());
+		Snapshot<Text, Unit, Unit> s1 = Snapshot.snapshot(plain);
+		plain.context().cut(0);
+		assertNull(s1.release());
+		assertTrue(plain.context().cutting());
+		Environment<Text, Unit, Unit> cutting = Environment.environment(text("abd"), unit(), location(), logger(), Context.context(Context.MEMO_WINDOW, true));
+		Snapshot<Text, Unit, Unit> s2 = Snapshot.snapshot(cutting), s3 = Snapshot.snapshot(cutting);
+		assertEquals(2, cutting.context().snapshots.size());
+		assertSame(cutting, s2.release());
+		assertTrue(cutting.context().snapshots.isEmpty());
+		assertSame(cutting, s3.release());
+		Snapshot<Text, Unit, Unit> s4 = Snapshot.snapshot(cutting);
+		cutting.context().cut(0);
+		assertNull(s4.release());
+		assertEquals(nothing(), evalParser(p, cutting));
+		assertTrue(cutting.context().snapshots.isEmpty());
+	}
+
+	@Test public void testLocation() {
+		assertEquals(just(location().advanceString("ab\ncd")), evalParser(located(string("ab\ncd")), text("ab\ncd\n\nef")));
+		assertEquals(just(location().advanceString("ab\ncd\n\ne")), evalParser(located(skipMany(any())), text("ab\ncd\n\ne")));
+		assertEquals(just(location().advanceString("ab\nc")), evalParser(located(choice(attempt(string("ab\ncd\nx")), string("ab\nc"))), text("ab\ncd\n\nef")));
+		assertEquals(location().advanceString("ab\nc"), runFast(located(choice(attempt(string("ab\ncd\nx")), string("ab\nc"))), text("ab\ncd\n\nef")).coerceResult());
+		assertEquals(just(location("<test>", 10, 5, 1)), evalParser(located(stringSatisfy(c -> c != 'e')), text("ab\ncd\n\nef"), unit(), location("<test>", 3, 2, 5)));
+		assertEquals(just(location("<test>", 5, 2, 7)), evalParser(located(string("ab")), text("ab\ncd\n\nef"), unit(), location("<test>", 3, 2, 5)));
+
+		Parser<Text, Unit, Void, Location> replaced = located(sequence(lookahead(string("x\ny")), setStream(text("abc")), string("ab")));
+		assertEquals(just(location().advanceString("ab")), evalParser(replaced, text("x\nyz")));
+		assertEquals(location().advanceString("ab"), runFast(replaced, text("x\nyz")).coerceResult());
+		Parser<Text, Unit, Void, Location> committed = located(sequence(string("a\nb"), commit(), string("\nc\nd")));
+		assertEquals(just(location().advanceString("a\nb\nc\nd")), evalParser(committed, text("a\nb\nc\nd")));
+		assertEquals(location().advanceString("a\nb\nc\nd"), runFast(committed, text("a\nb\nc\nd")).coerceResult());
+		Parser<Text, Unit, Void, Location> rewound = located(sequence(lookahead(sequence(string("a\nb"), commit())), string("a")));
+		assertEquals(just(location().advanceString("a")), evalParser(rewound, text("a\nb")));
+		assertEquals(location().advanceString("a"), runFast(rewound, text("a\nb")).coerceResult());
+		assertEquals(location().advanceString("a"), runFast(rewound.compile(), text("a\nb")).coerceResult());
+		Environment<Text, Unit, Void> reused = Environment.environment(text("a\nb"), unit(), location(), logger());
+		runParser(committed, reused);
+		runFast(committed, reused);
+		assertEquals(location(), reused.location());
+		assertEquals(location().advanceString("a\nb"), reused.lines().location(3));
+	}
+	@Test public void testCompile() {
+		Parser<Text, Unit, Void, String> number = manyString(digit());
+		Parser<Text, Unit, Void, String> word = choice(string("true"), string("false"), between(character('"'), character('"'), someString(noneOf('"'))));
+		Parser<Text, Unit, Void, List<String>> list = between(sequence(character('['), skipSome(space())), character(']'), someSep(sequence(character(','), skipSome(space())), choice(number, word).map(String::trim)));
+		Parser<Text, Unit, Void, List<String>> compiled = list.compile();
+		assertTrue(compiled.fast().getClass().isHidden());
+		for (String input : new String[] { "[]", "[ 1,2, \"ab\"]", "[true,false,12\n]", "[tru]", "[1,]", "[\"a", "[ 1 , x]", "[1,x]", "", "[x" }) assertEquals(runParser(list, text(input)), runFast(compiled, text(input)));
+	}
+	static <A> Parser<Text, Unit, Void, Location> located(Parser<Text, Unit, Void, A> p) { return p.flatMap(x -> getLocation()); }
 }
@@ -0,0 +1,57 @@
+package org.jparsec.core;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import static org.jparsec.core.Parser.Location.*;
+import static org.jparsec.core.Parser.Logger.*;
+import org.jparsec.core.Profile;
+import static org.jparsec.core.Profile.*;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+import static org.jparsec.core.parser.Char.*;
+import org.jparsec.core.parser.Combinator;
+import static org.jparsec.core.parser.Combinator.*;
+
+import org.monadium.core.data.Unit;
+import static org.monadium.core.data.Unit.*;
+import org.monadium.core.data.List;
+import static org.monadium.core.data.Maybe.*;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProfileTest {
+	@Test public void testProfile() {
+		Parser<Text, Unit, Void, String> number = profiled("number", Combinator.<Text, Unit, Void>manyString(digit()));
+		Parser<Text, Unit, Void, String> pair = profiled("pair", sequence(number, character(':'), number).map(u -> "pair"));
+		Parser<Text, Unit, Void, List<String>> list = profiled("list", manySep(character(','), choice(attempt(pair), number)));
+		for (boolean fast : new boolean[] { false, true }) {
+			Profile profile = profile();
+			Result<Text, Unit, Void, List<String>> result = fast ? profile.runFast(list, text("1,2:3,45"), unit()) : profile.runParser(list, text("1,2:3,45"), unit());
+			assertEquals(runParser(list, text("1,2:3,45")), result);
+			Map<String, Stats> stats = profile.stats().stream().collect(Collectors.toMap(Stats::name, s -> s));
+			assertEquals(1, stats.get("list").invocations());
+			assertEquals(8, stats.get("list").consumed());
+			assertEquals(3, stats.get("pair").invocations());
+			assertEquals(1, stats.get("pair").successes());
+			assertEquals(2, stats.get("pair").backtracks());
+			assertEquals(6, stats.get("number").invocations());
+			assertEquals(0, stats.get("number").failures());
+			assertTrue(profile.report().lines().anyMatch(line -> line.startsWith("pair ")));
+			assertTrue(profile.folded().lines().anyMatch(line -> line.startsWith("list;pair;number ")));
+			assertTrue(profile.folded().lines().anyMatch(line -> line.startsWith("list;number ")));
+		}
+		assertEquals(just(8), evalParser(located(list), text("1,2:3,45")));
+		Environment<Text, Unit, Void> unprofiled = Environment.environment(text("1,2:3,45"), unit(), 0, Lines.lines(location()), logger(), null);
+		assertEquals(runParser(list, text("1,2:3,45")).getResult(), runParser(list, unprofiled).getResult());
+		assertEquals(runParser(list, text("1,2:3,45")).getResult(), runFast(list, unprofiled).getResult());
+		Profile profile = profile();
+		assertEquals(runParser(list, text("1,2:3,45")).getResult(), profile.runFast(list, unprofiled).getResult());
+		assertEquals(1, profile.stats().stream().filter(stats -> stats.name().equals("list")).findFirst().orElseThrow().invocations());
+		assertNull(unprofiled.context());
+	}
+	static <A> Parser<Text, Unit, Void, Integer> located(Parser<Text, Unit, Void, A> p) { return p.flatMap(x -> getLocation()).map(Location::offset); }
+}
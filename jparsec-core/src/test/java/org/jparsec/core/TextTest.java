@@ -1,5 +1,19 @@
 package org.jparsec.core;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import static java.nio.charset.StandardCharsets.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import org.jparsec.core.CharPredicate;
+import static org.jparsec.core.CharPredicate.*;
 import org.jparsec.core.Text;
 import static org.jparsec.core.Text.*;
 
@@ -41,6 +55,8 @@ public class TextTest {
 		assertEquals(text(""), text("xy").take(-1));
 		assertEquals(text(""), text("xy").take(0));
 		assertEquals(text("x"), text("xy").take(1));
+		assertEquals(text("y".repeat(1000)), text("x" + "y".repeat(1000) + "z").drop(1).take(1000));
+		assertEquals("y".repeat(1000), text("x" + "y".repeat(1000) + "z").drop(1).take(1000).toString());
 		assertEquals(text(""), text("").drop(-1));
 		assertEquals(text(""), text("").drop(0));
 		assertEquals(text(""), text("").drop(1));
@@ -83,6 +99,13 @@ public class TextTest {
 		assertEquals(text(""), text("xy").dropWhile(c -> true));
 		assertEquals(text("y"), text("xy").dropWhile(c -> c == 'x'));
 		assertEquals(text("xy"), text("xy").dropWhile(c -> c == 'y'));
+		assertEquals(text("y"), text("xy").dropWhile((Predicate<Character>) c -> c == 'x'));
+		assertEquals(tuple(text("12"), text("x")), text("12x").span(ASCII_DIGIT));
+		assertEquals(2, text("12x").count(DIGIT));
+		assertEquals(text("x"), text("xy").takeWhile(c -> c.equals('x')));
+		assertEquals(text("y"), text("xy").dropWhileChar(c -> c == 'x'));
+		assertEquals(tuple(text("12"), text("x")), text("12x").spanChar(c -> c >= '0' && c <= '9'));
+		assertEquals(2, text("12x").countChar(Character::isDigit));
 		assertTrue(text("").isPrefixOf(text("")));
 		assertTrue(text("").isPrefixOf(text("x")));
 		assertTrue(text("").isPrefixOf(text("xy")));
@@ -92,6 +115,20 @@ public class TextTest {
 		assertFalse(text("xy").isPrefixOf(text("")));
 		assertFalse(text("xy").isPrefixOf(text("x")));
 		assertTrue(text("xy").isPrefixOf(text("xy")));
+		assertTrue(text("y").isPrefixOf(text("xy", 1)));
+		assertFalse(text("x").isPrefixOf(text("xy", 1)));
+		assertTrue(text("xy", 1).isPrefixOf(text("yz")));
+		assertTrue(text("").isSuffixOf(text("")));
+		assertTrue(text("").isSuffixOf(text("x")));
+		assertFalse(text("x").isSuffixOf(text("")));
+		assertTrue(text("x").isSuffixOf(text("x")));
+		assertTrue(text("y").isSuffixOf(text("xy")));
+		assertFalse(text("x").isSuffixOf(text("xy")));
+		assertFalse(text("xy").isSuffixOf(text("y")));
+		assertTrue(text("xy", 1).isSuffixOf(text("xy")));
+		assertEquals(text("y"), text("xy", 1));
+		assertEquals(text("y").hashCode(), text("xy", 1).hashCode());
+		assertEquals("xy".hashCode(), text("xy").hashCode());
 		assertEquals(nothing(), text("").index(-1));
 		assertEquals(nothing(), text("").index(0));
 		assertEquals(nothing(), text("").index(1));
@@ -102,4 +139,139 @@ public class TextTest {
 		assertEquals(just('x'), text("xy").index(0));
 		assertEquals(just('y'), text("xy").index(1));
 	}
+
+	@Test public void testStreamed() {
+		assertEquals(text(""), text(new StringReader(""), 2));
+		assertEquals(text("xyzw"), text(new StringReader("xyzw"), 2));
+		assertEquals(text("xyzw"), text(new StringReader("xyzw"), 3));
+		assertEquals(text(new StringReader("xyzw"), 3), text("xyzw"));
+		assertEquals("xyzw".hashCode(), text(new StringReader("xyzw"), 3).hashCode());
+		assertEquals(4, text(new StringReader("xyzw"), 3).length());
+		assertEquals(text("zw"), text(new StringReader("xyzw"), 3).drop(2));
+		assertEquals(text(""), text(new StringReader("xyzw"), 3).drop(4));
+		assertEquals(text("xyzw"), text(new StringReader("xyzw"), 3).drop(-1));
+		assertEquals(text("xyzw"), text(new StringReader("xyzw"), 3).take(5));
+		assertEquals(text("xyz"), text(new StringReader("xyzw"), 2).take(3));
+		assertEquals(text("yz"), text(new StringReader("xyzw"), 2).drop(1).take(2));
+		assertEquals(text("xyz"), text(new StringReader("xyzw"), 2).takeWhile(c -> c != 'w'));
+		assertEquals(text("w"), text(new StringReader("xyzw"), 2).dropWhile(c -> c != 'w'));
+		assertEquals(just(tuple('x', text("yzw"))), text(new StringReader("xyzw"), 2).uncons());
+		assertTrue(text("xyz").isPrefixOf(text(new StringReader("xyzw"), 2)));
+		assertFalse(text("xyw").isPrefixOf(text(new StringReader("xyzw"), 2)));
+		assertFalse(text("xyzwv").isPrefixOf(text(new StringReader("xyzw"), 2)));
+		assertTrue(text(new StringReader("yz"), 2).isPrefixOf(text("xyzw", 1)));
+		assertTrue(text("zw").isSuffixOf(text(new StringReader("xyzw"), 2)));
+		assertTrue(text(new StringReader("zw"), 2).isSuffixOf(text("xyzw")));
+		assertEquals(just('z'), text(new StringReader("xyzw"), 3).index(2));
+		assertEquals(just('w'), text(new StringReader("xyzw"), 3).index(3));
+		assertEquals(nothing(), text(new StringReader("xyzw"), 3).index(4));
+		assertEquals(nothing(), text(new StringReader("xyzw"), 3).index(-1));
+		assertEquals(text("xyzw"), text(new ByteArrayInputStream("xyzw".getBytes(UTF_8)), UTF_8));
+		assertEquals(text("xyzw"), text(Channels.newChannel(new ByteArrayInputStream("xyzw".getBytes(UTF_8))), UTF_8));
+		assertNotEquals(text("xyz"), text(new StringReader("xyzw"), 2));
+		assertNotEquals(text(new StringReader("xyzw"), 2), text("xyz"));
+		assertEquals(text(new StringReader("xyzw"), 3), text(new StringReader("xyzw"), 2));
+		assertEquals(3, text(new StringReader("xyzw"), 2).length(3));
+		assertEquals(text("x\uD83D\uDE00y"), text(new InputStreamReader(new ByteArrayInputStream("x\uD83D\uDE00y".getBytes(UTF_8)), UTF_8), 2));
+		assertThrows(IllegalArgumentException.class, () -> text(new StringReader("xyzw"), 1));
+
+		Text endless = text(new Reader() {
+			@Override public int read(char[] chars, int offset, int length) { Arrays.fill(chars, offset, offset + length, 'a'); return length; }
+			@Override public void close() {}
+		}, 16);
+		assertNotEquals(text("aaa"), endless);
+		assertNotEquals(endless, text("aaa"));
+		assertTrue(text("aaa").isPrefixOf(endless));
+		assertEquals(100, endless.length(100));
+		assertEquals(text("aaa"), endless.take(3).concat(text("")));
+	}
+
+	@Test public void testMapped() throws IOException {
+		Path path = Files.createTempFile("text", ".txt");
+		try {
+			Files.writeString(path, "xyzw\u00e9", ISO_8859_1);
+			assertEquals(text("xyzw\u00e9"), mapped(path, ISO_8859_1));
+			assertEquals(mapped(path, ISO_8859_1), text("xyzw\u00e9"));
+			assertEquals("xyzw\u00e9".hashCode(), mapped(path, ISO_8859_1).hashCode());
+			assertEquals(5, mapped(path, ISO_8859_1).length());
+			assertEquals(text("zw"), mapped(path, ISO_8859_1).drop(2).take(2));
+			assertEquals(text("xyz"), mapped(path, ISO_8859_1).takeWhile(c -> c != 'w'));
+			assertEquals(just('\u00e9'), mapped(path, ISO_8859_1).index(4));
+			assertEquals(nothing(), mapped(path, ISO_8859_1).index(5));
+			assertTrue(text("xyz").isPrefixOf(mapped(path, ISO_8859_1)));
+			assertFalse(text("xyw").isPrefixOf(mapped(path, ISO_8859_1)));
+			assertTrue(mapped(path, ISO_8859_1).take(2).isPrefixOf(text("xyzw")));
+			assertTrue(mapped(path, ISO_8859_1).drop(3).isSuffixOf(text("wxyzw\u00e9")));
+			assertFalse(mapped(path, ISO_8859_1).isSuffixOf(text("yzw\u00e9")));
+			String large = "xyzw".repeat(5000);
+			Files.writeString(path, large, ISO_8859_1);
+			assertEquals(mapped(path, ISO_8859_1), rope(large));
+			assertEquals(mapped(path, ISO_8859_1), mapped(path, ISO_8859_1));
+			assertNotEquals(mapped(path, ISO_8859_1), text(large.substring(1) + "x"));
+			assertTrue(mapped(path, ISO_8859_1).drop(4).isSuffixOf(text(large)));
+			assertTrue(mapped(path, ISO_8859_1).take(19999).isPrefixOf(mapped(path, ISO_8859_1)));
+			assertFalse(mapped(path, ISO_8859_1).drop(3).isPrefixOf(text(large)));
+			Files.writeString(path, "xyzw\u00e9\u4e2d", UTF_8);
+			assertEquals(text("xyzw\u00e9\u4e2d"), mapped(path, UTF_8));
+			Files.write(path, new byte[] { 'x', (byte) 0xE9 });
+			assertEquals(text("x\uFFFD"), mapped(path, US_ASCII));
+			Files.writeString(path, "", UTF_8);
+			assertEquals(text(""), mapped(path, UTF_8));
+			assertEquals(text(""), mapped(path, ISO_8859_1));
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test public void testRope() {
+		assertEquals(text(""), rope(""));
+		assertEquals(text("xyzw"), rope("xyzw"));
+		assertEquals(rope("xyzw"), text("xyzw"));
+		assertEquals("xyzw".hashCode(), rope("xyzw").hashCode());
+		assertEquals(text("yz"), rope("xyzw").drop(1).take(2));
+		assertEquals(text("xyz"), rope("xyzw").takeWhile(c -> c != 'w'));
+		assertEquals(just(tuple('x', text("yzw"))), rope("xyzw").uncons());
+		assertTrue(text("xyz").isPrefixOf(rope("xyzw")));
+		assertTrue(rope("zw").isSuffixOf(text("xyzw")));
+		assertEquals(nothing(), rope("xyzw").index(4));
+		String big1 = "x".repeat(4096), big2 = "y".repeat(4096);
+		Text joined = text(big1, 1).concat(text(big2));
+		assertTrue(joined instanceof Rope p1 && p1.piece().leafAt(0).string == big1 && p1.piece().leafAt(4095).string == big2);
+		assertTrue(nonemptyText('w', text(big2)) instanceof Rope p1 && p1.piece().leafAt(1).string == big2);
+		assertTrue(joined.concat(text(big1)) instanceof Rope p1 && p1.piece().leafAt(8191).string == big1);
+		assertEquals(text(big1.substring(1) + big2), joined);
+		assertTrue(text(big2).isSuffixOf(joined));
+		assertFalse(text(big1).isSuffixOf(joined));
+
+		StringBuilder builder = new StringBuilder();
+		Text t = emptyText();
+		for (int i = 0; i < 4000; i++) {
+			String s = "<" + i + ">";
+			int at = i * 7919 % (builder.length() + 1);
+			builder.insert(at, s);
+			Tuple<Text, Text> parts = t.splitAt(at);
+			t = parts.a().concat(rope(s)).concat(parts.b());
+		}
+		assertTrue(t instanceof Rope p1 && p1.piece().depth < 40);
+		assertEquals(builder.toString(), t.toString());
+		assertEquals(text(builder.toString()), t);
+		assertEquals(builder.toString().hashCode(), t.hashCode());
+		assertTrue(t.take(5000).isPrefixOf(t));
+		assertTrue(t.take(5000).isPrefixOf(text(builder.toString())));
+		assertFalse(t.drop(1).isPrefixOf(t));
+		assertTrue(t.drop(100).isSuffixOf(t));
+		assertTrue(t.drop(100).isSuffixOf(text(builder.toString())));
+		assertFalse(t.take(100).isSuffixOf(t));
+		assertFalse(t.isSuffixOf(t.drop(1)));
+		assertEquals(builder.length(), t.length());
+		for (int i = 0; i < builder.length(); i += 997) {
+			assertEquals(just(builder.charAt(i)), t.index(i));
+			assertEquals(text(builder.substring(i, Math.min(i + 600, builder.length()))), t.drop(i).take(600));
+			assertTrue(text(builder.substring(i, Math.min(i + 600, builder.length()))).isPrefixOf(t.drop(i)));
+		}
+		int digits = 0;
+		for (Text u = t; u instanceof Nonempty p1; u = p1.tail()) if (Character.isDigit(p1.head())) digits++;
+		assertEquals(builder.chars().filter(Character::isDigit).count(), digits);
+		assertEquals(builder.indexOf(">"), t.count(c -> c != '>'));
+	}
 }
@@ -0,0 +1,85 @@
+package org.jparsec.core.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.jparsec.core.Bytes;
+import static org.jparsec.core.Bytes.*;
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import org.jparsec.core.parser.Byte;
+import static org.jparsec.core.parser.Byte.*;
+import static org.jparsec.core.parser.Combinator.*;
+
+import static org.jparsec.core.Parser.Notation.*;
+
+import org.monadium.core.data.Unit;
+import static org.monadium.core.data.Unit.*;
+import static org.monadium.core.data.Maybe.*;
+
+import static org.monadium.core.Notation.*;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteTest {
+	@Test public void testEOF() {
+		assertEquals(nothing(), evalParser(eof(), bytes((byte) 1)));
+		assertEquals(just(unit()), evalParser(eof(), bytes()));
+	}
+
+	@Test public void testOctet() {
+		assertEquals(nothing(), evalParser(any(), bytes()));
+		assertEquals(just((byte) -1), evalParser(any(), bytes((byte) 0xFF)));
+		assertEquals(just((byte) 0x7F), evalParser(octet(0x7F), bytes((byte) 0x7F)));
+		assertEquals(nothing(), evalParser(octet(0x7F), bytes((byte) 0x7E)));
+		assertEquals(just((byte) 0x80), evalParser(satisfyByte(b -> b >= 0x80), bytes((byte) 0x80)));
+		assertEquals(nothing(), evalParser(satisfyByte(b -> b >= 0x80), bytes((byte) 0x7F)));
+	}
+
+	@Test public void testLiteral() {
+		assertEquals(just(bytes((byte) 'G', (byte) 'E', (byte) 'T')), evalParser(literal((byte) 'G', (byte) 'E', (byte) 'T'), bytes("GET /".getBytes())));
+		assertEquals(nothing(), evalParser(literal((byte) 'G', (byte) 'E', (byte) 'T'), bytes("GE".getBytes())));
+		assertEquals(just(bytes((byte) 1, (byte) 2)), evalParser(take(2), bytes((byte) 1, (byte) 2, (byte) 3)));
+		assertEquals(nothing(), evalParser(take(4), bytes((byte) 1, (byte) 2, (byte) 3)));
+		assertEquals(just(bytes("abc".getBytes())), evalParser(takeWhile(b -> b != ' '), bytes("abc def".getBytes())));
+		Parser<Bytes, Unit, Void, Bytes> get = literal((byte) 'G', (byte) 'E', (byte) 'T');
+		assertEquals(java.util.List.of("47 45", "47 45 54"), runParser(get, bytes("GE".getBytes())).getEnvironment().logger().messages().map(m -> m.b().toString()).toList());
+		assertEquals(java.util.List.of("50 55 54", "47 45 54"), runFast(get, bytes("PUT".getBytes())).getEnvironment().logger().messages().map(m -> m.b().toString()).toList());
+		assertEquals(java.util.List.of("eof", "47 45 54"), runFast(get, bytes()).getEnvironment().logger().messages().map(m -> m.b().toString()).toList());
+		assertEquals(runParser(get, bytes("GE".getBytes())), runFast(get, bytes("GE".getBytes())));
+		assertEquals(java.util.List.of("0x01", "uint32"), runParser(Byte.<Unit, Void>unsignedIntBE(), bytes((byte) 1)).getEnvironment().logger().messages().map(m -> m.b().toString()).toList());
+	}
+
+	@Test public void testNumber() {
+		Bytes b = bytes(ByteBuffer.allocate(14).putShort((short) -2).putInt(0x12345678).putLong(-3L).flip());
+		assertEquals(just((short) -2), evalParser(shortBE(), b));
+		assertEquals(just(0xFFFE), evalParser(unsignedShortBE(), b));
+		assertEquals(just((short) 0xFEFF), evalParser(shortLE(), b));
+		assertEquals(just(0x12345678), evalParser(intBE(), b.drop(2)));
+		assertEquals(just(0x78563412), evalParser(intLE(), b.drop(2)));
+		assertEquals(just(-3L), evalParser(longBE(), b.drop(6)));
+		assertEquals(just(0xFDFFFFFFFFFFFFFFL), evalParser(longLE(), b.drop(6)));
+		assertEquals(just(0xFDFFFFFFL), evalParser(unsignedIntLE(), b.drop(10)));
+		assertEquals(nothing(), evalParser(longBE(), b.drop(7)));
+		assertThrows(IndexOutOfBoundsException.class, () -> b.take(2).get(2));
+		assertThrows(IndexOutOfBoundsException.class, () -> b.take(2).get(0, 4, ByteOrder.BIG_ENDIAN));
+		assertThrows(IndexOutOfBoundsException.class, () -> b.drop(14).head());
+	}
+
+	@Test public void testLengthPrefixed() {
+		Parser<Bytes, Unit, Void, Integer> frame = $do(
+		$(	lengthPrefixed(unsignedByte(), intLE())		, x ->
+		$(	lengthPrefixed(unsignedByte())				, y ->
+		$(	simple(x + y.length())						)))
+		);
+		Bytes b = bytes((byte) 4, (byte) 1, (byte) 0, (byte) 0, (byte) 0, (byte) 2, (byte) 9, (byte) 9);
+		assertEquals(just(3), evalParser(frame, b));
+		assertEquals(just(3), runFast(frame, b).getResult());
+		assertEquals(runParser(frame, b), runFast(frame, b));
+		assertEquals(nothing(), evalParser(frame, bytes((byte) 5, (byte) 1, (byte) 0, (byte) 0, (byte) 0, (byte) 0, (byte) 0)));
+		assertEquals(nothing(), runFast(frame, bytes((byte) 5, (byte) 1, (byte) 0, (byte) 0, (byte) 0, (byte) 0, (byte) 0)).getResult());
+		assertEquals(nothing(), evalParser(frame, bytes((byte) 4, (byte) 1, (byte) 0, (byte) 0, (byte) 0, (byte) 2, (byte) 9)));
+		assertEquals(8, runParser(frame, b).getEnvironment().offset());
+	}
+}
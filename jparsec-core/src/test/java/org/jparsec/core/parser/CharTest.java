@@ -1,5 +1,10 @@
 package org.jparsec.core.parser;
 
+import java.io.StringReader;
+import java.util.function.Predicate;
+
+import org.jparsec.core.CharPredicate;
+import static org.jparsec.core.CharPredicate.*;
 import org.jparsec.core.Parser;
 import static org.jparsec.core.Parser.*;
 import org.jparsec.core.Text;
@@ -41,4 +46,61 @@ public class CharTest {
 		assertEquals(nothing(), evalParser(string("bar"), text("foo")));
 		assertEquals(just("bar"), evalParser(string("bar"), text("bar")));
 	}
+
+	@Test public void testStrings() {
+		assertEquals(nothing(), evalParser(strings(java.util.List.of("select", "set")), text("")));
+		assertEquals(nothing(), evalParser(strings(java.util.List.of("select", "set")), text("sel")));
+		assertEquals(just("set"), evalParser(strings(java.util.List.of("select", "set")), text("setx")));
+		assertEquals(just("<="), evalParser(strings(java.util.List.of("<", "<=", "<<")), text("<=>")));
+		assertEquals(just("<"), evalParser(strings(java.util.List.of("<", "<=", "<<")), text("<>")));
+		assertEquals(just(""), evalParser(strings(java.util.List.of("", "a")), text("b")));
+		assertEquals(just(2), evalParser(strings(java.util.Map.of("in", 1, "insert", 2)), text("insert")));
+		assertEquals(just(1), evalParser(strings(java.util.Map.of("in", 1, "insert", 2)), text("inse")));
+		assertEquals("<unknown>:0:(1,1):\n    Expected: \"select\", \"set\"\n", runParser(strings(java.util.List.of("set", "select")), text("x")).getEnvironment().logger().toString());
+		assertEquals(runParser(strings(java.util.List.of("in", "insert")), text("insex")), runFast(strings(java.util.List.of("in", "insert")), text("insex")));
+		assertEquals(runParser(strings(java.util.List.of("in", "insert")), text("x")), runFast(strings(java.util.List.of("in", "insert")), text("x")));
+	}
+
+	@Test public void testSatisfy() {
+		assertEquals(nothing(), evalParser(satisfy(ASCII_DIGIT), text("")));
+		assertEquals(nothing(), evalParser(satisfy(ASCII_DIGIT), text("x")));
+		assertEquals(just('1'), evalParser(satisfy(ASCII_DIGIT), text("1")));
+		assertEquals(just('x'), evalParser(satisfy(ASCII_LETTER.or(is('_'))), text("x")));
+		assertEquals(just('_'), evalParser(satisfy(ASCII_LETTER.or(is('_'))), text("_")));
+		assertEquals(just('x'), evalParser(dissatisfy(range('0', '9')), text("x")));
+		assertEquals(just('x'), evalParser(satisfy((Predicate<Character>) c -> c == 'x'), text("x")));
+		assertEquals(just('x'), evalParser(satisfy(c -> c.equals('x')), text("x")));
+		assertEquals(just('x'), evalParser(satisfy(java.util.Set.of('x', 'y')::contains), text("x")));
+		assertEquals(just('x'), evalParser(satisfyChar(c -> c == 'x'), text("x")));
+		assertEquals(just("xy"), evalParser(stringSatisfy(c -> Character.isLetter(c)), text("xy1")));
+		assertEquals(just("12"), evalParser(stringSatisfyChar(c -> c >= '0' && c <= '9'), text("12x")));
+		assertEquals(just("  \t"), evalParser(stringSatisfy(ASCII_WHITESPACE), text("  \tx")));
+		assertEquals(just("12"), evalParser(stringSatisfy(DIGIT), text("12x")));
+		assertEquals(just("x"), evalParser(stringDissatisfy(DIGIT), text("x12")));
+	}
+
+	@Test public void testOneOf() {
+		assertEquals(nothing(), evalParser(oneOf('x', 'y', '\u00e9'), text("")));
+		assertEquals(nothing(), evalParser(oneOf('x', 'y', '\u00e9'), text("z")));
+		assertEquals(just('y'), evalParser(oneOf('x', 'y', '\u00e9'), text("y")));
+		assertEquals(just('\u00e9'), evalParser(oneOf('x', 'y', '\u00e9'), text("\u00e9")));
+		assertEquals(nothing(), evalParser(noneOf('x', 'y', '\u00e9'), text("\u00e9")));
+		assertEquals(just('z'), evalParser(noneOf('x', 'y', '\u00e9'), text("z")));
+		assertEquals(just('Q'), evalParser(charClass("a-zA-Z_"), text("Q")));
+		assertEquals(just('_'), evalParser(charClass("a-zA-Z_"), text("_")));
+		assertEquals(nothing(), evalParser(charClass("a-zA-Z_"), text("1")));
+		assertEquals(just('1'), evalParser(charClass("^a-zA-Z_"), text("1")));
+		assertEquals(just('-'), evalParser(charClass("+\\-"), text("-")));
+		assertEquals(nothing(), evalParser(charClass("+\\-"), text(",")));
+		assertEquals(just('\u4e2d'), evalParser(charClass("\u4e00-\u9fff\u0100-\u01ff"), text("\u4e2d")));
+		assertEquals(nothing(), evalParser(charClass("\u4e00-\u9fff\u0100-\u01ff"), text("\u0300")));
+		assertEquals(just('\uffff'), evalParser(charClass("\u00ff-\uffff"), text("\uffff")));
+	}
+
+	@Test public void testStreamed() {
+		assertEquals(nothing(), evalParser(string("bar"), text(new StringReader("ba"), 2)));
+		assertEquals(just("bar"), evalParser(string("bar"), text(new StringReader("barfoo"), 2)));
+		assertEquals(just("ba"), evalParser(stringSatisfy(c -> c != 'r'), text(new StringReader("bar"), 2)));
+		assertEquals(just('r'), evalParser(character('r'), text(new StringReader("bar"), 2).drop(2)));
+	}
 }
@@ -1,7 +1,18 @@
 package org.jparsec.core.parser;
 
+import java.io.StringReader;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import org.jparsec.core.Parser;
+import static org.jparsec.core.ParserAssertions.*;
 import static org.jparsec.core.Parser.*;
+import static org.jparsec.core.Parser.Location.*;
+import org.jparsec.core.Parser.Message;
+import org.jparsec.core.Parser.Result;
+import org.jparsec.core.Profile;
 import org.jparsec.core.Text;
 import static org.jparsec.core.Text.*;
 import org.jparsec.core.parser.Char;
@@ -49,6 +60,46 @@ public class CombinatorTest {
 		assertEquals(just(unit()), evalParser(choice(sequence(string("abc"), string("foo")), sequence(string("abc"), string("bar"))), text("abcfoo")));
 	}
 
+	@Test public void testDispatch() {
+		int[] count = { 0 };
+		Parser<Text, Unit, Void, Character> x = satisfy(c -> { count[0]++; return c == 'x'; });
+		Parser<Text, Unit, Void, Character> a = character('a');
+		Parser<Text, Unit, Void, Character> b = attempt(Char.<Unit, Void>string("ab")).map(s -> 'b');
+		Parser<Text, Unit, Void, Character> p = choice(x, a, b);
+		assertEquals(0, count[0]);
+		assertEquals(just('a'), evalParser(p, text("ab")));
+		assertEquals(just('a'), runFast(p, text("ab")).getResult());
+		assertEquals(just('a'), runFast(p.compile(), text("ab")).getResult());
+		Parser<Text, Unit, Void, Character> q = x.plus(a).plus(b);
+		for (String input : new String[] { "", "x", "a", "b", "\u00e9" }) {
+			assertEquals(runParser(q, text(input)), runParser(p, text(input)));
+			assertEquals(runParser(q, text(input)), runFast(p, text(input)));
+			assertEquals(runParser(q, text(input)), runFast(p.compile(), text(input)));
+		}
+		Parser<Text, Unit, Void, Character> r = choice(a, b, x);
+		Parser<Text, Unit, Void, Character> s = a.plus(b).plus(x);
+		for (String input : new String[] { "", "x", "a", "b", "\u00e9" }) {
+			assertEquals(runParser(s, text(input)), runParser(r, text(input)));
+			assertEquals(runParser(s, text(input)), runFast(r, text(input)));
+			assertEquals(runParser(s, text(input)), runFast(r.compile(), text(input)));
+		}
+		count[0] = 0;
+		runParser(p, text("b"));
+		assertEquals(1, count[0]);
+		runFast(p, text("b"));
+		assertEquals(2, count[0]);
+		runFast(p.compile(), text("b"));
+		assertEquals(3, count[0]);
+		Parser<Text, Unit, Void, Character> h = choice(character('x'), Parser.<Text, Unit, Void, Character>halt(Message.expected("y")), a);
+		Parser<Text, Unit, Void, Character> g = Char.<Unit, Void>character('x').plus(Parser.<Text, Unit, Void, Character>halt(Message.expected("y"))).plus(a);
+		for (String input : new String[] { "", "x", "a", "b" }) {
+			assertEquals(runParser(g, text(input)), runParser(h, text(input)));
+			assertEquals(runParser(g, text(input)), runFast(h, text(input)));
+			assertEquals(runParser(g, text(input)), runFast(h.compile(), text(input)));
+		}
+		assertEquals(nothing(), runFast(h.compile(), text("a")).getResult());
+	}
+
 	@Test public void testReplicate() {
 		assertEquals(just(list()), evalParser(replicate(0, string("bar")), text("")));
 		assertEquals(just(list("bar")), evalParser(replicate(1, string("bar")), text("bar")));
@@ -66,4 +117,69 @@ public class CombinatorTest {
 		assertEquals(just(list("bar")), evalParser(many(string("bar")), text("bar")));
 		assertEquals(just(list("bar", "bar")), evalParser(many(string("bar")), text("barbar")));
 	}
+
+	@Test public void testCollect() {
+		assertEquals(just(java.util.List.of()), evalParser(someList(string("bar")), text("")));
+		assertEquals(just(java.util.List.of("bar", "bar")), evalParser(someList(string("bar")), text("barbar")));
+		assertEquals(nothing(), evalParser(manyList(string("bar")), text("")));
+		assertEquals(just(java.util.List.of("bar")), evalParser(manyList(string("bar")), text("bar")));
+		assertArrayEquals(new String[] { "bar", "bar" }, runParser(manyArray(string("bar"), String[]::new), text("barbar")).coerceResult());
+		assertArrayEquals(new String[] {}, runParser(someArray(string("bar"), String[]::new), text("foo")).coerceResult());
+		assertEquals(just(""), evalParser(someString(character('x')), text("")));
+		assertEquals(just("xx"), evalParser(someString(character('x')), text("xxy")));
+		assertEquals(nothing(), evalParser(manyString(character('x')), text("y")));
+		assertEquals(100000L, runParser(many(character('x')), text("x".repeat(100000))).coerceResult().stream().count());
+		assertEquals(100000, runParser(manyString(character('x')), text("x".repeat(100000))).coerceResult().length());
+		assertEquals(just(100000), evalParser(foldMany((n, c) -> simple(n + 1), 0, character('x')), text("x".repeat(100000))));
+	}
+
+	@Test public void testParallel() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		Parser<Text, Unit, Void, String> field = manyString(dissatisfy(c -> c == '\n'));
+		Parser<Text, Unit, Void, String> record = field.flatMap(s -> Parser.<Text, Unit, Void>getLocation().map(l -> s + "@" + l.line() + ":" + l.column()));
+		String input = IntStream.range(0, 20000).mapToObj(i -> "record " + i).collect(Collectors.joining("\n"));
+		for (String s : new String[] { input, input + "\n", input.substring(0, 150000) + "\n\n" + input.substring(150000), "a\nb" }) {
+			assertSameResult(runParser(manySep(newline(), record), text(s)), runParser(parallelManySep(newline(), record, pool), text(s)));
+			assertSameResult(runParser(manySep(newline(), record), text(s)), runFast(parallelManySep(newline(), record, pool), text(s)));
+		}
+		assertSameResult(runParser(manySep(newline(), record), text("x\n" + input), unit(), location("<test>", 7, 3, 4)), runFast(parallelManySep(newline(), record, pool), text("x\n" + input), unit(), location("<test>", 7, 3, 4)));
+		assertSameResult(runParser(manySep(newline(), record), text(input)), runFast(parallelManySep(newline(), record, pool), text(new StringReader(input))));
+		Parser<Text, Unit, Void, String> sep = memo(newline());
+		Parser<Text, Unit, Void, String> line = manyString(dissatisfy(c -> c == '\n' || c == '!'));
+		String broken = IntStream.range(0, 20000).mapToObj(i -> i == 9000 ? "!" : "record " + i).collect(Collectors.joining("\n"));
+		for (String s : new String[] { input, broken, "!\n" + input }) {
+			assertSameResult(runParser(manySep(sep, line), text(s)), runParser(parallelManySep(sep, line, pool), text(s)));
+			assertSameResult(runParser(manySep(sep, line), text(s)), runFast(parallelManySep(sep, line, pool), text(s)));
+		}
+		Parser<Text, Unit, Void, Character> tail = Profile.profiled("tail", character('!'));
+		Profile profile = Profile.profile();
+		Parser<Text, Unit, Void, Character> profiled = parallelManySep(newline(), line, pool).flatMap(records -> tail);
+		assertEquals(just('!'), profile.runFast(profiled, text(input + "!"), unit()).getResult());
+		assertEquals(1, profile.stats().size());
+		assertEquals(1, profile.stats().get(0).successes());
+		assertEquals(just('!'), profile.runParser(profiled, text(input + "!"), unit()).getResult());
+		assertEquals(2, profile.stats().get(0).successes());
+		AtomicInteger count = new AtomicInteger();
+		Parser<Text, Unit, Void, String> crlf = manyString(dissatisfy(c -> c == '\r' || c == '\n')).map(r -> { count.incrementAndGet(); return r; });
+		String windows = IntStream.range(0, 10000).mapToObj(i -> String.format("%014d", i)).collect(Collectors.joining("\r\n"));
+		assertEquals('\n', windows.charAt(windows.length() / 2));
+		Result<Text, Unit, Void, List<String>> expected = runParser(manySep(newline(), crlf), text(windows));
+		count.set(0);
+		assertSameResult(expected, runFast(parallelManySep(newline(), crlf, pool), text(windows)));
+		assertEquals(10000, count.get());
+		pool.shutdown();
+	}
+
+	@Test public void testFast() {
+		assertEquals(runParser(many(string("bar")), text("barbarfoo")), runFast(many(string("bar")), text("barbarfoo")));
+		assertEquals(runParser(some(string("bar")), text("foo")), runFast(some(string("bar")), text("foo")));
+		assertEquals(runParser(many(string("bar")), text("barba")), runFast(many(string("bar")), text("barba")));
+		assertEquals(runParser(skipSome(character('x')), text("xxy")), runFast(skipSome(character('x')), text("xxy")));
+		assertEquals(runParser(manySep(character(','), string("bar")), text("bar,bar,")), runFast(manySep(character(','), string("bar")), text("bar,bar,")));
+		assertEquals(runParser(choice(string("foo"), string("bar")), text("baz")), runFast(choice(string("foo"), string("bar")), text("baz")));
+		assertEquals(runParser(choice(attempt(string("bar")), string("baz")), text("baz")), runFast(choice(attempt(string("bar")), string("baz")), text("baz")));
+		assertEquals(runParser(sequence(lookahead(string("foo")), string("foobar")), text("foobar")), runFast(sequence(lookahead(string("foo")), string("foobar")), text("foobar")));
+		assertEquals(runParser(sequence(character('\n'), string("foo")), text("\nbar")), runFast(sequence(character('\n'), string("foo")), text("\nbar")));
+		assertEquals(100000L, runFast(many(character('x')), text("x".repeat(100000))).coerceResult().stream().count());
+	}
 }
@@ -1,5 +1,7 @@
 package org.jparsec.core.parser;
 
+import java.math.BigDecimal;
+
 import org.jparsec.core.Parser;
 import static org.jparsec.core.Parser.*;
 import org.jparsec.core.Text;
@@ -33,6 +35,36 @@ public class ReadTest {
 		assertEquals(just(-1024), evalParser(readInteger(), text("-1024")));
 	}
 
+	@Test public void testReadLong() {
+		assertEquals(nothing(), evalParser(readLong(), text("")));
+		assertEquals(nothing(), evalParser(readLong(), text("-")));
+		assertEquals(nothing(), evalParser(readLong(), text("9223372036854775808")));
+		assertEquals(nothing(), evalParser(readLong(), text("-9223372036854775809")));
+		assertEquals(nothing(), evalParser(readLong(), text("99999999999999999999999")));
+		assertEquals(just(Long.MAX_VALUE), evalParser(readLong(), text("9223372036854775807")));
+		assertEquals(just(Long.MIN_VALUE), evalParser(readLong(), text("-9223372036854775808")));
+		assertEquals(just(7L), evalParser(readLong(), text("+0007")));
+		assertEquals(just(0L), evalParser(readLong(), text("-0")));
+	}
+
+	@Test public void testReadByte() {
+		assertEquals(nothing(), evalParser(readByte(), text("128")));
+		assertEquals(nothing(), evalParser(readByte(), text("-129")));
+		assertEquals(just((byte) 127), evalParser(readByte(), text("127")));
+		assertEquals(just((byte) -128), evalParser(readByte(), text("-128")));
+		assertEquals(just((short) -32768), evalParser(readShort(), text("-32768")));
+		assertEquals(nothing(), evalParser(readShort(), text("32768")));
+	}
+
+	@Test public void testReadFloat() {
+		assertEquals(nothing(), evalParser(readFloat(), text("1.")));
+		assertEquals(just(-0.0F), evalParser(readFloat(), text("-0.0")));
+		assertEquals(just(3.4028235E38F), evalParser(readFloat(), text("340282350000000000000000000000000000000")));
+		assertEquals(just(0.1F), evalParser(readFloat(), text("0.1")));
+		assertEquals(just(16777217.0F), evalParser(readFloat(), text("16777217")));
+		assertEquals(just(new BigDecimal("1.00000005960464477539062500001").floatValue()), evalParser(readFloat(), text("1.00000005960464477539062500001")));
+	}
+
 	@Test public void testReadDouble() {
 		assertEquals(nothing(), evalParser(readDouble(), text("")));
 		assertEquals(nothing(), evalParser(readDouble(), text("bar")));
@@ -45,6 +77,13 @@ public class ReadTest {
 		assertEquals(just(1024.0D), evalParser(readDouble(), text("1024")));
 		assertEquals(just(-1024.0D), evalParser(readDouble(), text("-1024")));
 		assertEquals(just(-12345.6789D), evalParser(readDouble(), text("-12345.6789")));
+		assertEquals(nothing(), evalParser(readDouble(), text("1.")));
+		assertEquals(just(0.1D), evalParser(readDouble(), text("0.1")));
+		assertEquals(just(9007199254740993.0D), evalParser(readDouble(), text("9007199254740993")));
+		assertEquals(just(2.2250738585072014E-308D), evalParser(readDouble(), text("0." + "0".repeat(307) + "22250738585072014")));
+		assertEquals(just(0.30000000000000004D), evalParser(readDouble(), text("0.30000000000000004")));
+		assertEquals(just(123456789012345.67D), evalParser(readDouble(), text("123456789012345.678901234")));
+		assertEquals(just(new BigDecimal("1.00000000000000011102230246251565404236316680908203125").doubleValue()), evalParser(readDouble(), text("1.00000000000000011102230246251565404236316680908203125")));
 	}
 
 	@Test public void testReadCharacter() {
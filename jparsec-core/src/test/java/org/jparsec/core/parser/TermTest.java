@@ -19,8 +19,12 @@ import static org.jparsec.core.parser.Term.Operand.*;
 
 import static org.jparsec.core.Parser.Notation.*;
 
+import org.monadium.core.data.List;
+import static org.monadium.core.data.List.*;
 import org.monadium.core.data.Maybe;
 import static org.monadium.core.data.Maybe.*;
+import org.monadium.core.data.Unit;
+import static org.monadium.core.data.Unit.*;
 
 import static org.monadium.core.Notation.*;
 
@@ -108,6 +112,18 @@ public class TermTest {
 				))
 			))
 		), text("a + b")));
+		assertEquals(just("(a + b)"), evalParser(termP(new Definition<Text, Unit, Void, String, String>(
+			spaces(),
+			character('('),
+			character(')'),
+			n -> string(n),
+			advancing(stringSatisfy(c -> c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z')),
+			list(level(NONE,
+				operand("+", t1 -> operand(t2 ->
+					"(" + t1 + " + " + t2 + ")"
+				))
+			)))
+		), text("a + b")));
 	}
 	@Test public void testTernary() {
 		assertEquals(just("(a ? b : c)"), evalParser(termP(definition(
@@ -270,4 +286,60 @@ public class TermTest {
 			))
 		), text("a + b - c + d")));
 	}
+	@Test public void testReuse() {
+		Parser<Text, Unit, Void, String> p = termP(definition(
+			spaces(),
+			character('('),
+			character(')'),
+			n -> string(n),
+			advancing(stringSatisfy(c -> c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z')),
+			level(RIGHT,
+				operand("^", t1 -> operand(t2 ->
+					"(" + t1 + " ^ " + t2 + ")"
+				))
+			),
+			level(LEFT,
+				operand("?", t1 -> operand(":", t2 -> operand(t3 ->
+					"(" + t1 + " ? " + t2 + " : " + t3 + ")"
+				)))
+			))
+		);
+		assertEquals(just("(a ^ (b ^ c))"), evalParser(p, text("a ^ b ^ c")));
+		assertEquals(just("((a ? b : c) ^ (d ^ (e ? f : g)))"), evalParser(p, text("a ? b : c ^ d ^ (e ? f : g)")));
+		assertEquals(runParser(p, text("a ^ (b ? c")), runFast(p, text("a ^ (b ? c")));
+		assertEquals(just("(a ^ (b ^ c))"), evalParser(p, text("a ^ b ^ c")));
+	}
+	@Test public void testStrings() {
+		assertEquals(just("((a <= b) < c)"), evalParser(termP(definition(
+			spaces(),
+			character('('),
+			character(')'),
+			advancing(stringSatisfy(c -> c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z')),
+			level(LEFT,
+				operand("<", t1 -> operand(t2 ->
+					"(" + t1 + " < " + t2 + ")"
+				)),
+				operand("<=", t1 -> operand(t2 ->
+					"(" + t1 + " <= " + t2 + ")"
+				))
+			))
+		), text("a <= b < c")));
+	}
+	@Test public void testFast() {
+		assertEquals(just("(((a + b) - c) + d)"), runFast(termP(definition(
+			spaces(),
+			character('('),
+			character(')'),
+			n -> string(n),
+			advancing(stringSatisfy(c -> c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z')),
+			level(LEFT,
+				operand("+", t1 -> operand(t2 ->
+					"(" + t1 + " + " + t2 + ")"
+				)),
+				operand("-", t1 -> operand(t2 ->
+					"(" + t1 + " - " + t2 + ")"
+				))
+			))
+		), text("a + b - c + d")).getResult());
+	}
 }
@@ -0,0 +1,84 @@
+package org.jparsec.core.parser;
+
+import org.jparsec.core.Parser;
+import static org.jparsec.core.Parser.*;
+import org.jparsec.core.Parser.Environment;
+import org.jparsec.core.Parser.Location;
+import static org.jparsec.core.Parser.Location.*;
+import org.jparsec.core.Text;
+import static org.jparsec.core.Text.*;
+import org.jparsec.core.TokenStream;
+import static org.jparsec.core.parser.Char.*;
+import static org.jparsec.core.parser.Combinator.*;
+import org.jparsec.core.parser.Token;
+import static org.jparsec.core.parser.Token.*;
+
+import static org.jparsec.core.Parser.Notation.*;
+
+import org.monadium.core.data.List;
+import org.monadium.core.data.Unit;
+import static org.monadium.core.data.Unit.*;
+import static org.monadium.core.data.Maybe.*;
+
+import static org.monadium.core.Notation.*;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenTest {
+	enum Kind { NUMBER, PLUS, OPEN, CLOSE }
+	record Tok(Kind kind, String text) implements Token.Kinded<Kind> {}
+
+	static Parser<TokenStream<Tok>, Unit, Void, Integer> expr;
+
+	@Test public void testLexer() {
+		Parser<Text, Unit, Void, Tok> token = choice(
+			Combinator.<Text, Unit, Void>manyString(digit()).map(s -> new Tok(Kind.NUMBER, s)),
+			Char.<Unit, Void>character('+').map(c -> new Tok(Kind.PLUS, "+")),
+			Char.<Unit, Void>character('(').map(c -> new Tok(Kind.OPEN, "(")),
+			Char.<Unit, Void>character(')').map(c -> new Tok(Kind.CLOSE, ")"))
+		);
+		Parser<TokenStream<Tok>, Unit, Void, Integer> atom = choice(
+			Token.<Unit, Void, Kind, Tok>token(Kind.NUMBER).map(t -> Integer.parseInt(t.text())),
+			between(token(Kind.OPEN), token(Kind.CLOSE), recur(() -> expr))
+		);
+		expr = manySep(token(Kind.PLUS), atom).map(ns -> ns.stream().mapToInt(Integer::intValue).sum());
+		Parser<Text, Unit, Void, Integer> p = lexer(token, skipSome(space()), sequence(expr, Token.<Unit, Void, Tok>eof()).flatMap(u -> simple(0)));
+		Parser<Text, Unit, Void, Integer> q = lexer(token, skipSome(space()), expr);
+
+		assertEquals(just(10), evalParser(q, text(" 1 + (2+3)\n + 4 ")));
+		assertEquals(just(0), evalParser(p, text("1+2")));
+		assertEquals(nothing(), evalParser(q, text("1 + x")));
+		assertEquals(location().advanceString("1 +\n  "), runParser(q, text("1 +\n  + 2")).getEnvironment().location());
+		assertTrue(runParser(q, text("1 +\n  + 2")).getEnvironment().logger().toString().contains("NUMBER"));
+		assertEquals(text(") 3"), runParser(q, text("1 + 2 ) 3")).getEnvironment().stream());
+		assertEquals(just(3), runFast(q, text("1 + 2 ) 3")).getResult());
+	}
+
+	@Test public void testTokenStream() {
+		TokenStream<Tok> ts = runParser(tokenize(Char.<Unit, Void>character('+').map(c -> new Tok(Kind.PLUS, "+")), skipSome(space())), text(" + +")).coerceResult();
+		assertEquals(2, ts.length());
+		assertEquals(location().advanceString(" "), ts.location());
+		assertEquals(location().advanceString(" + "), ts.tail().location());
+		assertEquals(location().advanceString(" + +"), ts.drop(2).location());
+		assertTrue(ts.drop(5).isEmpty());
+		assertEquals(just(new Tok(Kind.PLUS, "+")), evalParser(tokenOf(Tok.class), ts));
+		assertEquals(nothing(), evalParser(Token.<Unit, Void, Kind, Tok>token(Kind.NUMBER), ts));
+	}
+
+	@Test public void testLocation() {
+		Parser<Text, Unit, Void, Tok> plus = Char.<Unit, Void>character('+').map(c -> new Tok(Kind.PLUS, "+"));
+		String input = " +\n\n  +  +\n\n\n+ ";
+		TokenStream<Tok> ts = runParser(tokenize(plus, skipSome(space())), text(input)).coerceResult();
+		Parser<TokenStream<Tok>, Unit, Void, List<Environment<TokenStream<Tok>, Unit, Void>>> environments = many(Token.<Unit, Void, Tok>any().flatMap(t -> getEnvironment()));
+		java.util.List<Environment<TokenStream<Tok>, Unit, Void>> es = evalParser(lexer(plus, skipSome(space()), environments), text(input)).coerceJust().stream().toList();
+		assertEquals(4, es.size());
+		for (int i = 0; i < es.size(); i++) {
+			assertEquals(ts.drop(i + 1).location(), es.get(i).location());
+			assertSame(es.get(0).lines(), es.get(i).lines());
+		}
+		Parser<TokenStream<Tok>, Unit, Void, List<Location>> locations = many(Token.<Unit, Void, Tok>any().flatMap(t -> getLocation()));
+		assertEquals(es.stream().map(Environment::location).toList(), evalParser(locations, ts).coerceJust().stream().toList());
+		assertEquals(es.stream().map(Environment::location).toList(), runFast(locations, ts).coerceResult().stream().toList());
+	}
+}